@@ -0,0 +1,73 @@
+package net.tatans.project.module.common.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import net.tatans.project.module.common.util.BeanAccessor;
+import net.tatans.project.module.common.util.BeanAccessors;
+import net.tatans.project.module.common.util.MyBeanUtils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Project Name:demo-framework
+ * 
+ * Package:net.tatans.project.module.common.benchmark
+ * 
+ * FileName:BeanUtilsBenchmark.java
+ * 
+ *         Purpose: MyBeanUtils反射读取属性与BeanAccessors生成的访问器的开销对比，Updater拷贝和keyset分页都依赖它。
+ * 
+ *         Create Time: 2026年10月17日 下午5:47:51
+ * 
+ *         Version: 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BeanUtilsBenchmark
+{
+	private final BenchItem bean = new BenchItem(1, "name", 10);
+	private final BeanAccessor accessor = BeanAccessors.get(BenchItem.class);
+	private final int nameIndex = accessor.indexOf("name");
+
+	@Benchmark
+	public Object getSimpleProperty() throws Exception
+	{
+		return MyBeanUtils.getSimpleProperty(bean, "name");
+	}
+
+	@Benchmark
+	public Object getFieldValue()
+	{
+		return MyBeanUtils.getFieldValue(bean, "name");
+	}
+
+	@Benchmark
+	public Object accessorByIndex()
+	{
+		return accessor.getValue(bean, nameIndex);
+	}
+
+	@Benchmark
+	public Object accessorByName()
+	{
+		return BeanAccessors.getValue(bean, "name");
+	}
+
+	@Benchmark
+	public Object getterBaseline()
+	{
+		return bean.getName();
+	}
+}
@@ -0,0 +1,78 @@
+package net.tatans.project.module.common.benchmark;
+
+import java.io.Serializable;
+
+import net.tatans.project.module.common.hibernate3.PriorityInterface;
+
+/**
+ * Project Name:demo-framework
+ * 
+ * Package:net.tatans.project.module.common.benchmark
+ * 
+ * FileName:BenchItem.java
+ * 
+ *         Purpose: 基准测试用的实体，映射见BenchItem.hbm.xml
+ * 
+ *         Create Time: 2026年10月17日 下午5:55:03
+ * 
+ *         Version: 1.0
+ */
+@SuppressWarnings("serial")
+public class BenchItem implements PriorityInterface, Serializable
+{
+	private Integer id;
+	private String name;
+	private Integer priority;
+	private Integer channelId;
+
+	public BenchItem()
+	{
+	}
+
+	public BenchItem(Integer id, String name, Integer priority)
+	{
+		this.id = id;
+		this.name = name;
+		this.priority = priority;
+	}
+
+	public Integer getId()
+	{
+		return id;
+	}
+
+	public void setId(Integer id)
+	{
+		this.id = id;
+	}
+
+	public String getName()
+	{
+		return name;
+	}
+
+	public void setName(String name)
+	{
+		this.name = name;
+	}
+
+	public Integer getPriority()
+	{
+		return priority;
+	}
+
+	public void setPriority(Integer priority)
+	{
+		this.priority = priority;
+	}
+
+	public Integer getChannelId()
+	{
+		return channelId;
+	}
+
+	public void setChannelId(Integer channelId)
+	{
+		this.channelId = channelId;
+	}
+}
@@ -0,0 +1,44 @@
+package net.tatans.project.module.common.benchmark;
+
+import net.tatans.project.module.common.hibernate3.Finder;
+import net.tatans.project.module.common.hibernate3.HibernateBaseDao;
+import net.tatans.project.module.common.page.KeysetPage;
+import net.tatans.project.module.common.page.Pagination;
+import net.tatans.project.module.common.page.Slice;
+
+/**
+ * Project Name:demo-framework
+ * 
+ * Package:net.tatans.project.module.common.benchmark
+ * 
+ * FileName:BenchItemDao.java
+ * 
+ *         Purpose: 公开HibernateSimpleDao的分页方法，供基准测试调用。
+ * 
+ *         Create Time: 2026年10月17日 下午5:56:40
+ * 
+ *         Version: 1.0
+ */
+public class BenchItemDao extends HibernateBaseDao<BenchItem, Integer>
+{
+	public Pagination page(Finder finder, int pageNo, int pageSize)
+	{
+		return find(finder, pageNo, pageSize);
+	}
+
+	public Slice slice(Finder finder, int pageNo, int pageSize)
+	{
+		return findSlice(finder, pageNo, pageSize);
+	}
+
+	public KeysetPage keyset(Finder finder, Object[] lastKey, int pageSize)
+	{
+		return findByKeyset(finder, lastKey, pageSize);
+	}
+
+	@Override
+	protected Class<BenchItem> getEntityClass()
+	{
+		return BenchItem.class;
+	}
+}
@@ -0,0 +1,88 @@
+package net.tatans.project.module.common.benchmark;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import net.tatans.project.module.common.hibernate3.Finder;
+import net.tatans.project.module.common.hibernate3.FinderTemplate;
+
+import org.hibernate.Query;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Project Name:demo-framework
+ * 
+ * Package:net.tatans.project.module.common.benchmark
+ * 
+ * FileName:FinderBenchmark.java
+ * 
+ *         Purpose: Finder生成count语句和绑定参数的开销。
+ * 
+ *         Create Time: 2026年10月17日 下午5:42:30
+ * 
+ *         Version: 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FinderBenchmark
+{
+	private static final String HQL = "select distinct bean from Content bean join fetch bean.channel channel"
+			+ " where channel.id=:channelId and bean.status in (:status) and bean.title like :title"
+			+ " order by bean.topLevel desc, bean.id desc";
+
+	private static final FinderTemplate TEMPLATE = FinderTemplate.compile(HQL);
+
+	private Query query;
+	private Finder finder;
+
+	@Setup
+	public void setup()
+	{
+		query = Stubs.query();
+		finder = Finder.create(HQL).setParam("channelId", 1)
+				.setParamList("status", new Object[] { 1, 2 })
+				.setParam("title", "%demo%");
+	}
+
+	@Benchmark
+	public String rowCountHql()
+	{
+		return Finder.create(HQL).getRowCountHql();
+	}
+
+	@Benchmark
+	public String rowCountHqlAppended()
+	{
+		Finder f = Finder.create("select distinct bean from Content bean");
+		f.append(" join fetch bean.channel channel");
+		f.append(" where channel.id=:channelId");
+		f.append(" order by bean.id desc");
+		return f.getRowCountHql();
+	}
+
+	@Benchmark
+	public String rowCountHqlTemplate()
+	{
+		return TEMPLATE.bind(1, Arrays.asList(1, 2), "%demo%")
+				.getRowCountHql();
+	}
+
+	@Benchmark
+	public Query setParamsToQuery()
+	{
+		return finder.setParamsToQuery(query);
+	}
+}
@@ -0,0 +1,154 @@
+package net.tatans.project.module.common.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import net.tatans.project.module.common.hibernate3.Finder;
+import net.tatans.project.module.common.page.KeysetPage;
+import net.tatans.project.module.common.page.Pagination;
+import net.tatans.project.module.common.page.Slice;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Project Name:demo-framework
+ * 
+ * Package:net.tatans.project.module.common.benchmark
+ * 
+ * FileName:PaginationBenchmark.java
+ * 
+ *         Purpose: DAO分页在内存数据库H2上的开销，比较offset分页、不含总数的Slice分页和keyset分页。
+ *         只用于发现框架本身的回归，不代表MySQL上的绝对耗时。
+ * 
+ *         Create Time: 2026年10月17日 下午5:58:22
+ * 
+ *         Version: 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PaginationBenchmark
+{
+	private static final String HQL = "from BenchItem bean where bean.channelId=:channelId order by bean.id";
+	private static final int PAGE_SIZE = 20;
+
+	@Param({ "10000" })
+	private int rows;
+
+	@Param({ "1", "400" })
+	private int pageNo;
+
+	private SessionFactory sessionFactory;
+	private BenchItemDao dao;
+	private Object[] lastKey;
+
+	@Setup(Level.Trial)
+	public void setup()
+	{
+		Configuration cfg = new Configuration();
+		cfg.setProperty("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+		cfg.setProperty("hibernate.connection.driver_class", "org.h2.Driver");
+		cfg.setProperty("hibernate.connection.url",
+				"jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1");
+		cfg.setProperty("hibernate.connection.username", "sa");
+		cfg.setProperty("hibernate.hbm2ddl.auto", "create");
+		cfg.setProperty("hibernate.current_session_context_class", "thread");
+		cfg.setProperty("hibernate.jdbc.batch_size", "50");
+		cfg.addResource("net/tatans/project/module/common/benchmark/BenchItem.hbm.xml");
+		sessionFactory = cfg.buildSessionFactory();
+		dao = new BenchItemDao();
+		dao.setSessionFactory(sessionFactory);
+
+		StatelessSession session = sessionFactory.openStatelessSession();
+		Transaction tx = session.beginTransaction();
+		for (int i = 1; i <= rows; i++)
+		{
+			BenchItem item = new BenchItem(i, "item" + i, i % 100);
+			item.setChannelId(i % 2);
+			session.insert(item);
+		}
+		tx.commit();
+		session.close();
+		// keyset分页从与offset分页相同的位置开始
+		lastKey = new Object[] { (pageNo - 1) * PAGE_SIZE * 2 };
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown()
+	{
+		sessionFactory.close();
+	}
+
+	@Benchmark
+	public Pagination offsetPage()
+	{
+		Session session = begin();
+		try
+		{
+			return dao.page(finder(), pageNo, PAGE_SIZE);
+		} finally
+		{
+			session.getTransaction().commit();
+		}
+	}
+
+	@Benchmark
+	public Slice slicePage()
+	{
+		Session session = begin();
+		try
+		{
+			return dao.slice(finder(), pageNo, PAGE_SIZE);
+		} finally
+		{
+			session.getTransaction().commit();
+		}
+	}
+
+	@Benchmark
+	public KeysetPage keysetPage()
+	{
+		Session session = begin();
+		try
+		{
+			Finder finder = Finder.create("from BenchItem bean where bean.channelId=:channelId");
+			finder.setParam("channelId", 0);
+			finder.addSeekKey("bean.id", false);
+			return dao.keyset(finder, pageNo > 1 ? lastKey : null, PAGE_SIZE);
+		} finally
+		{
+			session.getTransaction().commit();
+		}
+	}
+
+	private Finder finder()
+	{
+		return Finder.create(HQL).setParam("channelId", 0);
+	}
+
+	private Session begin()
+	{
+		Session session = sessionFactory.getCurrentSession();
+		session.beginTransaction();
+		return session;
+	}
+}
@@ -0,0 +1,78 @@
+package net.tatans.project.module.common.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import net.tatans.project.module.common.hibernate3.PriorityComparator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Project Name:demo-framework
+ * 
+ * Package:net.tatans.project.module.common.benchmark
+ * 
+ * FileName:PriorityComparatorBenchmark.java
+ * 
+ *         Purpose: PriorityComparator单次比较和排序的开销。
+ * 
+ *         Create Time: 2026年10月17日 下午5:50:26
+ * 
+ *         Version: 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PriorityComparatorBenchmark
+{
+	@Param({ "10", "1000" })
+	private int size;
+
+	private List<BenchItem> items;
+	private BenchItem first;
+	private BenchItem second;
+
+	@Setup
+	public void setup()
+	{
+		Random random = new Random(42);
+		items = new ArrayList<BenchItem>(size);
+		for (int i = 0; i < size; i++)
+		{
+			// 优先级有重复，比较时会用到id
+			items.add(new BenchItem(i, "item" + i, random.nextInt(size / 2 + 1)));
+		}
+		first = new BenchItem(1, "first", 10);
+		second = new BenchItem(2, "second", 10);
+	}
+
+	@Benchmark
+	public int compare()
+	{
+		return PriorityComparator.INSTANCE.compare(first, second);
+	}
+
+	@Benchmark
+	public List<BenchItem> sort()
+	{
+		List<BenchItem> list = new ArrayList<BenchItem>(items);
+		Collections.sort(list, PriorityComparator.INSTANCE);
+		return list;
+	}
+}
@@ -0,0 +1,62 @@
+package net.tatans.project.module.common.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import net.tatans.project.module.common.page.Pagination;
+import net.tatans.project.module.common.page.SimplePage;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Project Name:demo-framework
+ * 
+ * Package:net.tatans.project.module.common.benchmark
+ * 
+ * FileName:SimplePageBenchmark.java
+ * 
+ *         Purpose: 分页对象的页码计算开销。
+ * 
+ *         Create Time: 2026年10月17日 下午5:52:14
+ * 
+ *         Version: 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SimplePageBenchmark
+{
+	private int pageNo = 37;
+	private int pageSize = 20;
+	private int totalCount = 123457;
+
+	@Benchmark
+	public void pageMath(Blackhole bh)
+	{
+		SimplePage page = new SimplePage(pageNo, pageSize, totalCount);
+		bh.consume(page.getTotalPage());
+		bh.consume(page.isFirstPage());
+		bh.consume(page.isLastPage());
+		bh.consume(page.getNextPage());
+		bh.consume(page.getPrePage());
+	}
+
+	@Benchmark
+	public int adjustPageNo()
+	{
+		// 页码超出最大页数，构造时调整为最后一页
+		return new Pagination(Integer.MAX_VALUE, pageSize, totalCount)
+				.getFirstResult();
+	}
+}
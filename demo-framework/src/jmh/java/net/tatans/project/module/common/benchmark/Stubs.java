@@ -0,0 +1,87 @@
+package net.tatans.project.module.common.benchmark;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.hibernate.Query;
+
+/**
+ * Project Name:demo-framework
+ * 
+ * Package:net.tatans.project.module.common.benchmark
+ * 
+ * FileName:Stubs.java
+ * 
+ *         Purpose: 基准测试用的接口桩，只实现被测代码用到的方法，其余方法返回默认值。
+ * 
+ *         Create Time: 2026年10月17日 下午5:40:12
+ * 
+ *         Version: 1.0
+ */
+final class Stubs
+{
+	private Stubs()
+	{
+	}
+
+	/**
+	 * 所有setXxx方法都返回自身的Query，用于测试Finder.setParamsToQuery
+	 */
+	static Query query()
+	{
+		return (Query) Proxy.newProxyInstance(Stubs.class.getClassLoader(),
+				new Class<?>[] { Query.class }, new InvocationHandler()
+				{
+					public Object invoke(Object proxy, Method method,
+							Object[] args)
+					{
+						if (method.getReturnType() == Query.class)
+						{
+							return proxy;
+						}
+						return defaultValue(method.getReturnType());
+					}
+				});
+	}
+
+	/**
+	 * 从map中读取参数的请求
+	 */
+	static HttpServletRequest request(final Map<String, String> params)
+	{
+		return (HttpServletRequest) Proxy.newProxyInstance(
+				Stubs.class.getClassLoader(),
+				new Class<?>[] { HttpServletRequest.class },
+				new InvocationHandler()
+				{
+					public Object invoke(Object proxy, Method method,
+							Object[] args)
+					{
+						if ("getParameter".equals(method.getName()))
+						{
+							return params.get(args[0]);
+						}
+						return defaultValue(method.getReturnType());
+					}
+				});
+	}
+
+	private static Object defaultValue(Class<?> type)
+	{
+		if (type == boolean.class)
+		{
+			return Boolean.FALSE;
+		} else if (type == int.class)
+		{
+			return 0;
+		} else if (type == long.class)
+		{
+			return 0L;
+		}
+		return null;
+	}
+}
@@ -0,0 +1,81 @@
+package net.tatans.project.module.common.benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import net.tatans.project.module.common.web.XssHttpServletRequestWrapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Project Name:demo-framework
+ * 
+ * Package:net.tatans.project.module.common.benchmark
+ * 
+ * FileName:XssBenchmark.java
+ * 
+ *         Purpose: XssHttpServletRequestWrapper.getParameter的开销，过滤字符与web.xml中XssFilter的配置一致。
+ * 
+ *         Create Time: 2026年10月17日 下午5:45:08
+ * 
+ *         Version: 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class XssBenchmark
+{
+	private static final String SPLIT_CHAR = "@";
+	private static final String FILTER_CHAR = "'@\"@\\@#@:@%@>";
+	private static final String REPLACE_CHAR = "\\'@\\\"@＼@＃@：@\\\\%@＞";
+
+	private XssHttpServletRequestWrapper request;
+
+	@Setup
+	public void setup()
+	{
+		Map<String, String> params = new HashMap<String, String>();
+		params.put("pageNo", "12");
+		params.put("title", "framework performance test for request parameters");
+		params.put("script", "<script>alert('x');</script>%3Cimg src=#%3E");
+		request = new XssHttpServletRequestWrapper(Stubs.request(params),
+				FILTER_CHAR, REPLACE_CHAR, SPLIT_CHAR);
+	}
+
+	@Benchmark
+	public String shortParameter()
+	{
+		return request.getParameter("pageNo");
+	}
+
+	@Benchmark
+	public String textParameter()
+	{
+		return request.getParameter("title");
+	}
+
+	@Benchmark
+	public String maliciousParameter()
+	{
+		return request.getParameter("script");
+	}
+
+	@Benchmark
+	public String missingParameter()
+	{
+		return request.getParameter("missing");
+	}
+}
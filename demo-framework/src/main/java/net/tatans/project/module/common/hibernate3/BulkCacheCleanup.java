@@ -0,0 +1,113 @@
+package net.tatans.project.module.common.hibernate3;
+
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.hibernate.cache.UpdateTimestampsCache;
+import org.hibernate.engine.SessionFactoryImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+
+/**
+ * Project Name:demo-framework
+ * 
+ * Package:net.tatans.project.module.common.hibernate3
+ * 
+ * FileName:BulkCacheCleanup.java
+ * 
+ *         Purpose: 通过JDBC直接修改实体表时的缓存清理，与hibernate执行bulk update时相同。<br>
+ *         修改前预先使查询缓存失效，事务结束后清除实体的二级缓存并再次使查询缓存失效。
+ *         不能在提交前清除：其他session可能在提交前把旧数据以更新的时间戳重新放入缓存，提交后仍然有效。
+ *         没有活动的事务时，在修改后立即清除。
+ * 
+ *         <pre>
+ * BulkCacheCleanup cleanup = BulkCacheCleanup.begin(session, persister);
+ * try {
+ * 	session.doWork(work);
+ * } finally {
+ * 	cleanup.end();
+ * }
+ * </pre>
+ * 
+ *         Create Time: 2026年10月18日 下午2:15:40
+ * 
+ *         Version: 1.0
+ */
+final class BulkCacheCleanup implements Synchronization {
+	/**
+	 * Purpose: 修改前调用：预先使查询缓存失效，并登记在事务结束后清除
+	 * 
+	 * @param session
+	 * @param persister
+	 *            被修改的实体
+	 * @return
+	 * 
+	 *         Version: 1.0
+	 */
+	static BulkCacheCleanup begin(Session session, EntityPersister persister) {
+		SessionFactoryImplementor factory = (SessionFactoryImplementor) session
+				.getSessionFactory();
+		UpdateTimestampsCache timestamps = factory.getUpdateTimestampsCache();
+		if (timestamps != null) {
+			timestamps.preinvalidate(persister.getQuerySpaces());
+		}
+		Transaction tx = session.getTransaction();
+		BulkCacheCleanup cleanup = new BulkCacheCleanup(factory, persister, tx
+				.isActive());
+		if (cleanup.registered) {
+			tx.registerSynchronization(cleanup);
+		}
+		return cleanup;
+	}
+
+	private BulkCacheCleanup(SessionFactoryImplementor factory,
+			EntityPersister persister, boolean registered) {
+		this.factory = factory;
+		this.persister = persister;
+		this.registered = registered;
+	}
+
+	/**
+	 * 清除时同时使树的快照失效
+	 * 
+	 * @param snapshotCache
+	 * @param tree
+	 */
+	void invalidateSnapshot(TreeSnapshotCache snapshotCache,
+			HibernateTree<?> tree) {
+		this.snapshotCache = snapshotCache;
+		this.tree = tree;
+	}
+
+	/**
+	 * 修改后调用，没有活动的事务时立即清除。修改失败时也必须调用，否则查询缓存在预先失效的时间内不可用
+	 */
+	void end() {
+		if (!registered) {
+			afterCompletion(Status.STATUS_COMMITTED);
+		}
+	}
+
+	public void beforeCompletion() {
+	}
+
+	public void afterCompletion(int status) {
+		if (persister.hasCache()) {
+			factory.evictEntity(persister.getEntityName());
+		}
+		UpdateTimestampsCache timestamps = factory.getUpdateTimestampsCache();
+		if (timestamps != null) {
+			timestamps.invalidate(persister.getQuerySpaces());
+		}
+		if (snapshotCache != null) {
+			snapshotCache.invalidate(tree);
+		}
+	}
+
+	private final SessionFactoryImplementor factory;
+	private final EntityPersister persister;
+	private final boolean registered;
+	private TreeSnapshotCache snapshotCache;
+	private HibernateTree<?> tree;
+}
@@ -0,0 +1,440 @@
+package net.tatans.project.module.common.hibernate3;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.transaction.Synchronization;
+
+import org.apache.commons.lang.StringUtils;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.hibernate.engine.SessionFactoryImplementor;
+import org.hibernate.jdbc.Work;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Project Name:demo-framework
+ * 
+ * Package:net.tatans.project.module.common.hibernate3
+ * 
+ * FileName:ClosureTableStrategy.java
+ * 
+ *         Purpose: 以闭包表(Closure Table)维护树结构，适合写入频繁的树，例如评论。<br>
+ *         闭包表保存每个节点与其所有祖先(包括自己)的关系：祖先ID、子孙ID、距离。
+ *         新增节点只插入O(深度)条记录，不会像Nested Set那样平移其他节点；
+ *         移动节点时删除子树与原祖先的关系，再插入子树与新祖先的关系；删除节点时删除节点的所有关系。
+ *         闭包表需要映射为实体，例如：
+ * 
+ *         <pre>
+ * &lt;class name="CommentClosure" table="comment_closure"&gt;
+ * 	&lt;composite-id&gt;
+ * 		&lt;key-property name="ancestor" column="ancestor_id" type="integer"/&gt;
+ * 		&lt;key-property name="descendant" column="descendant_id" type="integer"/&gt;
+ * 	&lt;/composite-id&gt;
+ * 	&lt;property name="depth" column="depth" type="integer"/&gt;
+ * &lt;/class&gt;
+ * </pre>
+ * 
+ *         树节点实现HibernateTreeNode即可，不需要左右值。闭包表通过JDBC直接维护，不经过hibernate的一级缓存，
+ *         修改前预先使闭包实体的查询缓存失效，事务结束后清除其二级缓存并再次使查询缓存失效。
+ *         新节点的关系在flush之后插入，因为此时节点才有ID。
+ * 
+ *         Create Time: 2026年10月18日 上午1:10:32
+ * 
+ *         Version: 1.0
+ */
+public class ClosureTableStrategy implements TreeStrategy {
+	private static final Logger log = LoggerFactory
+			.getLogger(ClosureTableStrategy.class);
+
+	/**
+	 * 默认祖先ID属性名称
+	 */
+	public static final String DEF_ANCESTOR_NAME = "ancestor";
+	/**
+	 * 默认子孙ID属性名称
+	 */
+	public static final String DEF_DESCENDANT_NAME = "descendant";
+	/**
+	 * 默认距离属性名称
+	 */
+	public static final String DEF_DEPTH_NAME = "depth";
+	/**
+	 * 移动节点时每条delete语句中子孙ID的最大个数
+	 */
+	public static final int DELETE_BATCH_SIZE = 500;
+
+	public boolean supports(Object entity) {
+		return treeClass.isInstance(entity);
+	}
+
+	/**
+	 * 节点此时可能还没有ID，登记在flush之后插入关系
+	 */
+	public boolean onSave(Session session, HibernateTreeNode<?> node,
+			Object[] state, String[] propertyNames) {
+		Transaction tx = session.getTransaction();
+		PendingNodes nodes = pending.get(tx);
+		if (nodes == null) {
+			nodes = new PendingNodes(tx);
+			tx.registerSynchronization(nodes);
+			pending.put(tx, nodes);
+		}
+		nodes.nodes.add(node);
+		return false;
+	}
+
+	public boolean onMove(Session session, final HibernateTreeNode<?> node,
+			HibernateTreeNode<?> preParent,
+			final HibernateTreeNode<?> currParent, Object[] state,
+			String[] propertyNames) {
+		final Columns c = getColumns(session);
+		final long id = node.getId().longValue();
+		write(session, new Work() {
+			public void execute(Connection connection) throws SQLException {
+				if (currParent != null
+						&& isAncestor(connection, c, id, currParent.getId()
+								.longValue())) {
+					throw new IllegalStateException("cannot move tree node "
+							+ id + " under its descendant "
+							+ currParent.getId());
+				}
+				List<Long> subtree = queryIds(connection, "select "
+						+ c.descendant + " from " + c.table + " where "
+						+ c.ancestor + "=?", id);
+				List<Long> ancestors = queryIds(connection, "select "
+						+ c.ancestor + " from " + c.table + " where "
+						+ c.descendant + "=? and " + c.depth + ">0", id);
+				// 删除子树与原祖先的关系
+				if (!ancestors.isEmpty()) {
+					for (int i = 0; i < subtree.size(); i += DELETE_BATCH_SIZE) {
+						List<Long> chunk = subtree.subList(i, Math.min(
+								subtree.size(), i + DELETE_BATCH_SIZE));
+						deleteRelations(connection, c, chunk, ancestors);
+					}
+				}
+				// 插入子树与新祖先的关系
+				if (currParent != null) {
+					PreparedStatement ps = connection.prepareStatement("insert into "
+							+ c.table + " (" + c.ancestor + ", " + c.descendant
+							+ ", " + c.depth + ") select p." + c.ancestor
+							+ ", s." + c.descendant + ", p." + c.depth
+							+ " + s." + c.depth + " + 1 from " + c.table
+							+ " p, " + c.table + " s where p." + c.descendant
+							+ "=? and s." + c.ancestor + "=?");
+					try {
+						ps.setLong(1, currParent.getId().longValue());
+						ps.setLong(2, id);
+						ps.executeUpdate();
+					} finally {
+						ps.close();
+					}
+				}
+				log.debug("move closure node {}, subtree={}, old depth={}",
+						new Object[] { id, subtree.size(), ancestors.size() });
+			}
+		});
+		return false;
+	}
+
+	public void onDelete(Session session, HibernateTreeNode<?> node) {
+		PendingNodes pendingNodes = pending.get(session.getTransaction());
+		if (pendingNodes != null) {
+			for (Iterator<HibernateTreeNode<?>> it = pendingNodes.nodes.iterator(); it
+					.hasNext();) {
+				if (it.next() == node) {
+					it.remove();
+				}
+			}
+		}
+		if (node.getId() == null) {
+			return;
+		}
+		final Columns c = getColumns(session);
+		final long id = node.getId().longValue();
+		write(session, new Work() {
+			public void execute(Connection connection) throws SQLException {
+				PreparedStatement ps = connection.prepareStatement("delete from "
+						+ c.table + " where " + c.descendant + "=? or "
+						+ c.ancestor + "=?");
+				try {
+					ps.setLong(1, id);
+					ps.setLong(2, id);
+					ps.executeUpdate();
+				} finally {
+					ps.close();
+				}
+			}
+		});
+	}
+
+	/**
+	 * 插入新节点的关系：自己到自己，以及父节点的所有祖先到自己。按保存顺序插入，父节点总是在子节点之前。
+	 */
+	public void postFlush(Session session) {
+		PendingNodes pendingNodes = pending.get(session.getTransaction());
+		if (pendingNodes == null || pendingNodes.nodes.isEmpty()) {
+			return;
+		}
+		final List<HibernateTreeNode<?>> nodes = new ArrayList<HibernateTreeNode<?>>(
+				pendingNodes.nodes);
+		pendingNodes.nodes.clear();
+		final Columns c = getColumns(session);
+		write(session, new Work() {
+			public void execute(Connection connection) throws SQLException {
+				PreparedStatement self = connection.prepareStatement("insert into "
+						+ c.table + " (" + c.ancestor + ", " + c.descendant
+						+ ", " + c.depth + ") values (?, ?, 0)");
+				PreparedStatement ancestors = connection
+						.prepareStatement("insert into " + c.table + " ("
+								+ c.ancestor + ", " + c.descendant + ", "
+								+ c.depth + ") select " + c.ancestor + ", ?, "
+								+ c.depth + " + 1 from " + c.table + " where "
+								+ c.descendant + "=?");
+				try {
+					boolean hasParent = false;
+					for (HibernateTreeNode<?> node : nodes) {
+						long id = node.getId().longValue();
+						self.setLong(1, id);
+						self.setLong(2, id);
+						self.addBatch();
+						if (node.getParentId() != null) {
+							ancestors.setLong(1, id);
+							ancestors.setLong(2, node.getParentId()
+									.longValue());
+							ancestors.addBatch();
+							hasParent = true;
+						}
+					}
+					self.executeBatch();
+					if (hasParent) {
+						ancestors.executeBatch();
+					}
+				} finally {
+					self.close();
+					ancestors.close();
+				}
+			}
+		});
+		log.debug("insert closure for {} nodes", nodes.size());
+	}
+
+	public void beforeTransactionCompletion(Session session) {
+	}
+
+	public void afterTransactionCompletion(boolean committed) {
+	}
+
+	/**
+	 * 子孙节点按距离、ID排序
+	 */
+	public Finder getDescendants(HibernateTreeNode<?> node) {
+		Finder f = Finder.create("select bean from " + treeClass.getName()
+				+ " bean, " + closureClass.getName() + " c where c."
+				+ descendantName + "=bean.id and c." + ancestorName
+				+ "=:nodeId and c." + depthName + ">0");
+		appendCondition(f, node);
+		f.append(" order by c." + depthName + ", bean.id");
+		return f.setParam("nodeId", node.getId());
+	}
+
+	/**
+	 * 祖先节点从根节点开始
+	 */
+	public Finder getAncestors(HibernateTreeNode<?> node) {
+		Finder f = Finder.create("select bean from " + treeClass.getName()
+				+ " bean, " + closureClass.getName() + " c where c."
+				+ ancestorName + "=bean.id and c." + descendantName
+				+ "=:nodeId and c." + depthName + ">0");
+		appendCondition(f, node);
+		f.append(" order by c." + depthName + " desc");
+		return f.setParam("nodeId", node.getId());
+	}
+
+	private void appendCondition(Finder f, HibernateTreeNode<?> node) {
+		if (!StringUtils.isBlank(node.getTreeCondition())) {
+			f.append(" and (" + node.getTreeCondition() + ")");
+		}
+	}
+
+	private static boolean isAncestor(Connection connection, Columns c,
+			long ancestor, long descendant) throws SQLException {
+		PreparedStatement ps = connection.prepareStatement("select count(*) from "
+				+ c.table + " where " + c.ancestor + "=? and " + c.descendant
+				+ "=?");
+		try {
+			ps.setLong(1, ancestor);
+			ps.setLong(2, descendant);
+			ResultSet rs = ps.executeQuery();
+			rs.next();
+			return rs.getLong(1) > 0;
+		} finally {
+			ps.close();
+		}
+	}
+
+	private static List<Long> queryIds(Connection connection, String sql,
+			long id) throws SQLException {
+		List<Long> ids = new ArrayList<Long>();
+		PreparedStatement ps = connection.prepareStatement(sql);
+		try {
+			ps.setLong(1, id);
+			ResultSet rs = ps.executeQuery();
+			while (rs.next()) {
+				ids.add(rs.getLong(1));
+			}
+		} finally {
+			ps.close();
+		}
+		return ids;
+	}
+
+	private static void deleteRelations(Connection connection, Columns c,
+			List<Long> descendants, List<Long> ancestors) throws SQLException {
+		StringBuilder sql = new StringBuilder("delete from ").append(c.table)
+				.append(" where ").append(c.descendant).append(" in (");
+		appendPlaceholders(sql, descendants.size());
+		sql.append(") and ").append(c.ancestor).append(" in (");
+		appendPlaceholders(sql, ancestors.size());
+		sql.append(")");
+		PreparedStatement ps = connection.prepareStatement(sql.toString());
+		try {
+			int index = 1;
+			for (Long id : descendants) {
+				ps.setLong(index++, id);
+			}
+			for (Long id : ancestors) {
+				ps.setLong(index++, id);
+			}
+			ps.executeUpdate();
+		} finally {
+			ps.close();
+		}
+	}
+
+	private static void appendPlaceholders(StringBuilder sql, int count) {
+		for (int i = 0; i < count; i++) {
+			sql.append(i == 0 ? "?" : ",?");
+		}
+	}
+
+	/**
+	 * 通过JDBC修改闭包表，修改前预先使查询缓存失效，事务结束后清除二级缓存并再次使查询缓存失效
+	 * 
+	 * @see BulkCacheCleanup
+	 */
+	private void write(Session session, Work work) {
+		BulkCacheCleanup cleanup = BulkCacheCleanup.begin(session,
+				getPersister(session));
+		try {
+			session.doWork(work);
+		} finally {
+			cleanup.end();
+		}
+	}
+
+	private AbstractEntityPersister getPersister(Session session) {
+		return (AbstractEntityPersister) ((SessionFactoryImplementor) session
+				.getSessionFactory()).getEntityPersister(closureClass
+				.getName());
+	}
+
+	/**
+	 * 闭包表的表名和列名，取自闭包实体的映射
+	 */
+	private Columns getColumns(Session session) {
+		if (columns == null) {
+			AbstractEntityPersister persister = getPersister(session);
+			columns = new Columns(persister.getTableName(), persister
+					.getPropertyColumnNames(ancestorName)[0], persister
+					.getPropertyColumnNames(descendantName)[0], persister
+					.getPropertyColumnNames(depthName)[0]);
+		}
+		return columns;
+	}
+
+	private static final class Columns {
+		private final String table;
+		private final String ancestor;
+		private final String descendant;
+		private final String depth;
+
+		private Columns(String table, String ancestor, String descendant,
+				String depth) {
+			this.table = table;
+			this.ancestor = ancestor;
+			this.descendant = descendant;
+			this.depth = depth;
+		}
+	}
+
+	/**
+	 * 一个事务中新保存、尚未插入关系的节点，事务结束时移除
+	 */
+	private final class PendingNodes implements Synchronization {
+		private final Transaction tx;
+		private final List<HibernateTreeNode<?>> nodes = new ArrayList<HibernateTreeNode<?>>();
+
+		private PendingNodes(Transaction tx) {
+			this.tx = tx;
+		}
+
+		public void beforeCompletion() {
+		}
+
+		public void afterCompletion(int status) {
+			pending.remove(tx);
+		}
+	}
+
+	/**
+	 * 各事务中新保存、尚未插入关系的节点。按hibernate事务区分，REQUIRES_NEW的内层事务不会插入或丢弃外层事务的节点
+	 */
+	private final ConcurrentMap<Transaction, PendingNodes> pending = new ConcurrentHashMap<Transaction, PendingNodes>();
+	private volatile Columns columns;
+
+	private Class<?> treeClass;
+	private Class<?> closureClass;
+	private String ancestorName = DEF_ANCESTOR_NAME;
+	private String descendantName = DEF_DESCENDANT_NAME;
+	private String depthName = DEF_DEPTH_NAME;
+
+	/**
+	 * 设置树节点实体类
+	 * 
+	 * @param treeClass
+	 */
+	public void setTreeClass(Class<?> treeClass) {
+		this.treeClass = treeClass;
+	}
+
+	/**
+	 * 设置闭包表实体类
+	 * 
+	 * @param closureClass
+	 */
+	public void setClosureClass(Class<?> closureClass) {
+		this.closureClass = closureClass;
+	}
+
+	public void setAncestorName(String ancestorName) {
+		this.ancestorName = ancestorName;
+	}
+
+	public void setDescendantName(String descendantName) {
+		this.descendantName = descendantName;
+	}
+
+	public void setDepthName(String depthName) {
+		this.depthName = depthName;
+	}
+}
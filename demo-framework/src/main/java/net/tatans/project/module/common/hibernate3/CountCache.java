@@ -0,0 +1,246 @@
+package net.tatans.project.module.common.hibernate3;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.UpdateTimestampsCache;
+import org.hibernate.engine.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Project Name:demo-framework
+ * 
+ * Package:net.tatans.project.module.common.hibernate3
+ * 
+ * FileName:CountCache.java
+ * 
+ *         Purpose: 分页总记录数缓存。<br>
+ *         以count语句和参数值作为key缓存Finder的总记录数，翻页时不再重复执行count。
+ *         缓存项在超过存活时间，或hibernate写入了count语句涉及的任何表之后失效。
+ *         后者借助hibernate查询缓存的UpdateTimestampsCache实现，
+ *         需要开启hibernate.cache.use_query_cache，否则只按存活时间失效。
+ * 
+ *         Create Time: 2026年10月17日 上午11:05:40
+ * 
+ *         Version: 1.0
+ */
+public class CountCache
+{
+	private static final Logger log = LoggerFactory.getLogger(CountCache.class);
+
+	/**
+	 * Purpose: 生成缓存key
+	 * 
+	 * @param countHql
+	 *            count语句
+	 * @param finder
+	 * @return
+	 * 
+	 *         Version: 1.0
+	 */
+	public CountKey createKey(String countHql, Finder finder)
+	{
+		return new CountKey(countHql, finder.getParamsKey());
+	}
+
+	/**
+	 * Purpose: 获得缓存的总记录数
+	 * 
+	 * @param key
+	 * @return 不存在或已失效时返回null
+	 * 
+	 *         Version: 1.0
+	 */
+	public Integer get(CountKey key)
+	{
+		Entry entry = cache.get(key);
+		if (entry == null)
+		{
+			return null;
+		}
+		if (entry.expireTime < System.currentTimeMillis())
+		{
+			cache.remove(key, entry);
+			return null;
+		}
+		UpdateTimestampsCache timestampsCache = getFactory()
+				.getUpdateTimestampsCache();
+		if (timestampsCache != null
+				&& !timestampsCache.isUpToDate(entry.spaces, entry.timestamp))
+		{
+			log.debug("count cache entry is stale: {}", key.countHql);
+			cache.remove(key, entry);
+			return null;
+		}
+		return entry.count;
+	}
+
+	/**
+	 * Purpose: 缓存总记录数
+	 * 
+	 * @param key
+	 * @param count
+	 *            总记录数
+	 * @param timestamp
+	 *            执行count语句之前通过nextTimestamp()获得的时间戳
+	 * 
+	 *         Version: 1.0
+	 */
+	public void put(CountKey key, int count, long timestamp)
+	{
+		if (cache.size() >= maxElements)
+		{
+			evictExpired();
+			if (cache.size() >= maxElements)
+			{
+				log.debug("count cache is full, clear all {} entries",
+						cache.size());
+				cache.clear();
+			}
+		}
+		cache.put(key, new Entry(count, timestamp, System.currentTimeMillis()
+				+ timeToLive * 1000L, getQuerySpaces(key.countHql)));
+	}
+
+	/**
+	 * Purpose: 获得hibernate的时间戳，用于判断缓存项之后是否有写入
+	 * 
+	 * @return
+	 * 
+	 *         Version: 1.0
+	 */
+	public long nextTimestamp()
+	{
+		return getFactory().getSettings().getRegionFactory().nextTimestamp();
+	}
+
+	/**
+	 * 清空缓存
+	 */
+	public void clear()
+	{
+		cache.clear();
+	}
+
+	private void evictExpired()
+	{
+		long now = System.currentTimeMillis();
+		for (Iterator<Entry> it = cache.values().iterator(); it.hasNext();)
+		{
+			if (it.next().expireTime < now)
+			{
+				it.remove();
+			}
+		}
+	}
+
+	/**
+	 * count语句涉及的表，取自hibernate的查询计划缓存
+	 */
+	@SuppressWarnings("unchecked")
+	private Set<Serializable> getQuerySpaces(String countHql)
+	{
+		return getFactory().getQueryPlanCache()
+				.getHQLQueryPlan(countHql, false, Collections.EMPTY_MAP)
+				.getQuerySpaces();
+	}
+
+	private SessionFactoryImplementor getFactory()
+	{
+		return (SessionFactoryImplementor) sessionFactory;
+	}
+
+	/**
+	 * 缓存key：count语句和参数值
+	 */
+	public static final class CountKey
+	{
+		private final String countHql;
+		private final List<Object> params;
+		private final int hashCode;
+
+		private CountKey(String countHql, List<Object> params)
+		{
+			this.countHql = countHql;
+			this.params = params;
+			this.hashCode = 31 * countHql.hashCode() + params.hashCode();
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (this == obj)
+			{
+				return true;
+			}
+			if (!(obj instanceof CountKey))
+			{
+				return false;
+			}
+			CountKey other = (CountKey) obj;
+			return hashCode == other.hashCode
+					&& countHql.equals(other.countHql)
+					&& params.equals(other.params);
+		}
+	}
+
+	private static final class Entry
+	{
+		private final int count;
+		private final Long timestamp;
+		private final long expireTime;
+		private final Set<Serializable> spaces;
+
+		private Entry(int count, long timestamp, long expireTime,
+				Set<Serializable> spaces)
+		{
+			this.count = count;
+			this.timestamp = timestamp;
+			this.expireTime = expireTime;
+			this.spaces = spaces;
+		}
+	}
+
+	private final ConcurrentMap<CountKey, Entry> cache = new ConcurrentHashMap<CountKey, Entry>();
+
+	/**
+	 * 缓存项存活时间(秒)
+	 */
+	private int timeToLive = 300;
+	/**
+	 * 最大缓存项数
+	 */
+	private int maxElements = 10000;
+
+	private SessionFactory sessionFactory;
+
+	@Autowired
+	public void setSessionFactory(SessionFactory sessionFactory)
+	{
+		this.sessionFactory = sessionFactory;
+	}
+
+	public void setTimeToLive(int timeToLive)
+	{
+		this.timeToLive = timeToLive;
+	}
+
+	public void setMaxElements(int maxElements)
+	{
+		this.maxElements = maxElements;
+	}
+}
@@ -0,0 +1,78 @@
+package net.tatans.project.module.common.hibernate3;
+
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.hibernate.Criteria;
+import org.hibernate.criterion.Projections;
+import org.hibernate.impl.CriteriaImpl;
+
+/**
+ * Project Name:demo-framework
+ * 
+ * Package:net.tatans.project.module.common.hibernate3
+ * 
+ * FileName:CountCriteria.java
+ * 
+ *         Purpose: 由Criteria生成对应的count查询。<br>
+ *         通过CriteriaImpl公开的iterateSubcriteria、iterateExpressionEntries重建一个新的Criteria，
+ *         包含相同的关联(别名、连接方式)和查询条件，不包含排序、分页和原有的Projection、ResultTransformer。
+ *         不使用反射，也不修改原Criteria，原Criteria可以继续用于列表查询或重复使用。
+ *         查询条件对象在两者之间共享，只读取不修改。
+ * 
+ *         Create Time: 2026年10月18日 上午5:20:44
+ * 
+ *         Version: 1.0
+ */
+final class CountCriteria
+{
+	private CountCriteria()
+	{
+	}
+
+	/**
+	 * Purpose: 生成count查询，绑定原Criteria的session，结果为Number
+	 * 
+	 * @param crit
+	 * @return
+	 * 
+	 *         Version: 1.0
+	 */
+	static CriteriaImpl create(CriteriaImpl crit)
+	{
+		CriteriaImpl count = new CriteriaImpl(crit.getEntityOrClassName(),
+				crit.getAlias(), crit.getSession());
+		// 原Criteria(根或Subcriteria)到新Criteria的对应关系，条件按所属的Criteria添加
+		Map<Criteria, Criteria> copies = new IdentityHashMap<Criteria, Criteria>();
+		copies.put(crit, count);
+		// Subcriteria按创建顺序排列，父Criteria总在子Criteria之前
+		for (Iterator<?> it = crit.iterateSubcriteria(); it.hasNext();)
+		{
+			CriteriaImpl.Subcriteria sub = (CriteriaImpl.Subcriteria) it.next();
+			copies.put(sub, copies.get(sub.getParent()).createCriteria(
+					sub.getPath(), sub.getAlias(), sub.getJoinType()));
+		}
+		for (Iterator<?> it = crit.iterateExpressionEntries(); it.hasNext();)
+		{
+			CriteriaImpl.CriterionEntry entry = (CriteriaImpl.CriterionEntry) it
+					.next();
+			copies.get(entry.getCriteria()).add(entry.getCriterion());
+		}
+		count.setProjection(Projections.rowCount());
+		count.setCacheable(crit.getCacheable());
+		if (crit.getCacheRegion() != null)
+		{
+			count.setCacheRegion(crit.getCacheRegion());
+		}
+		if (crit.getTimeout() != null)
+		{
+			count.setTimeout(crit.getTimeout());
+		}
+		if (crit.getComment() != null)
+		{
+			count.setComment(crit.getComment());
+		}
+		return count;
+	}
+}
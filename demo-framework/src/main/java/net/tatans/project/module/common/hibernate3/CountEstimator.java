@@ -0,0 +1,230 @@
+package net.tatans.project.module.common.hibernate3;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.QueryParameters;
+import org.hibernate.engine.SessionFactoryImplementor;
+import org.hibernate.engine.SessionImplementor;
+import org.hibernate.engine.TypedValue;
+import org.hibernate.engine.query.HQLQueryPlan;
+import org.hibernate.hql.QueryTranslator;
+import org.hibernate.hql.ast.QueryTranslatorImpl;
+import org.hibernate.jdbc.Work;
+import org.hibernate.param.NamedParameterSpecification;
+import org.hibernate.param.ParameterSpecification;
+import org.hibernate.type.Type;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Project Name:demo-framework
+ * 
+ * Package:net.tatans.project.module.common.hibernate3
+ * 
+ * FileName:CountEstimator.java
+ * 
+ *         Purpose: 估算Finder的总记录数，用于超大表的分页。<br>
+ *         没有查询条件的单表count，读取information_schema中的表统计信息；
+ *         有查询条件时，对count语句执行EXPLAIN，取执行计划中估计的行数。
+ *         两者都只是InnoDB的估计值，误差可能较大，只适合显示"约xx条"的场景。
+ *         目前只支持MySQL，其他数据库以及无法估算的查询返回null，由调用方执行精确的count。
+ * 
+ *         Create Time: 2026年10月17日 下午3:58:26
+ * 
+ *         Version: 1.0
+ */
+final class CountEstimator
+{
+	private static final Logger log = LoggerFactory
+			.getLogger(CountEstimator.class);
+
+	private static final String TABLE_ROWS_SQL = "select table_rows from information_schema.tables where table_schema=database() and table_name=?";
+
+	private CountEstimator()
+	{
+	}
+
+	/**
+	 * Purpose: 估算Finder的总记录数
+	 * 
+	 * @param finder
+	 * @param session
+	 * @return 无法估算时返回null
+	 * 
+	 *         Version: 1.0
+	 */
+	@SuppressWarnings("unchecked")
+	static Long estimate(Finder finder, Session session)
+	{
+		SessionFactoryImplementor factory = (SessionFactoryImplementor) session
+				.getSessionFactory();
+		if (!(factory.getDialect() instanceof MySQLDialect))
+		{
+			return null;
+		}
+		String rowCountHql = finder.getRowCountHql();
+		HQLQueryPlan plan = factory.getQueryPlanCache().getHQLQueryPlan(
+				rowCountHql, false, Collections.EMPTY_MAP);
+		QueryTranslator[] translators = plan.getTranslators();
+		// 多态查询会拆分为多条sql，不估算
+		if (translators.length != 1
+				|| !(translators[0] instanceof QueryTranslatorImpl))
+		{
+			return null;
+		}
+		String sql = translators[0].getSQLString();
+		Set<String> spaces = plan.getQuerySpaces();
+		String lowerSql = sql.toLowerCase();
+		if (rowCountHql.startsWith(Finder.ROW_COUNT) && spaces.size() == 1
+				&& lowerSql.indexOf(Finder.WHERE) < 0
+				&& lowerSql.indexOf(" join ") < 0)
+		{
+			return tableRows(session, spaces.iterator().next());
+		}
+		Map<String, TypedValue> params = finder.getTypedParams(plan
+				.getParameterMetadata());
+		if (params == null)
+		{
+			return null;
+		}
+		return explainRows(session, (QueryTranslatorImpl) translators[0],
+				sql, params);
+	}
+
+	/**
+	 * 表统计信息中的行数
+	 */
+	private static Long tableRows(Session session, String space)
+	{
+		final String table = space.substring(space.lastIndexOf('.') + 1)
+				.replace("`", "");
+		final Long[] result = new Long[1];
+		return execute(session, new Work()
+		{
+			public void execute(Connection connection) throws SQLException
+			{
+				PreparedStatement ps = connection
+						.prepareStatement(TABLE_ROWS_SQL);
+				try
+				{
+					ps.setString(1, table);
+					ResultSet rs = ps.executeQuery();
+					if (rs.next())
+					{
+						long rows = rs.getLong(1);
+						result[0] = rs.wasNull() ? null : rows;
+					}
+					rs.close();
+				} finally
+				{
+					ps.close();
+				}
+			}
+		}, result);
+	}
+
+	/**
+	 * 执行计划中估计的行数。多表连接时为各表估计行数(按filtered比例过滤后)的乘积
+	 */
+	private static Long explainRows(final Session session,
+			final QueryTranslatorImpl translator, final String sql,
+			Map<String, TypedValue> params)
+	{
+		final QueryParameters queryParameters = new QueryParameters(
+				new Type[0], new Object[0], params, null);
+		final Long[] result = new Long[1];
+		return execute(session, new Work()
+		{
+			public void execute(Connection connection) throws SQLException
+			{
+				PreparedStatement ps = connection.prepareStatement("explain "
+						+ sql);
+				try
+				{
+					int position = 1;
+					for (Object spec : translator
+							.getCollectedParameterSpecifications())
+					{
+						// 过滤器等其他参数无法绑定，不估算
+						if (!(spec instanceof NamedParameterSpecification))
+						{
+							return;
+						}
+						position += ((ParameterSpecification) spec).bind(ps,
+								queryParameters, (SessionImplementor) session,
+								position);
+					}
+					ResultSet rs = ps.executeQuery();
+					result[0] = readExplainRows(rs);
+					rs.close();
+				} finally
+				{
+					ps.close();
+				}
+			}
+		}, result);
+	}
+
+	private static Long readExplainRows(ResultSet rs) throws SQLException
+	{
+		ResultSetMetaData meta = rs.getMetaData();
+		boolean hasFiltered = false;
+		for (int i = 1; i <= meta.getColumnCount(); i++)
+		{
+			if ("filtered".equalsIgnoreCase(meta.getColumnLabel(i)))
+			{
+				hasFiltered = true;
+			}
+		}
+		double estimate = 1;
+		boolean found = false;
+		while (rs.next())
+		{
+			// 只计算最外层查询，忽略子查询
+			if (rs.getInt("id") != 1)
+			{
+				continue;
+			}
+			long rows = rs.getLong("rows");
+			if (rs.wasNull())
+			{
+				continue;
+			}
+			double filtered = 100;
+			if (hasFiltered)
+			{
+				filtered = rs.getDouble("filtered");
+				if (rs.wasNull())
+				{
+					filtered = 100;
+				}
+			}
+			estimate *= rows * filtered / 100;
+			found = true;
+		}
+		return found ? Math.round(estimate) : null;
+	}
+
+	private static Long execute(Session session, Work work, Long[] result)
+	{
+		try
+		{
+			session.doWork(work);
+		} catch (HibernateException e)
+		{
+			log.warn("cannot estimate row count, use exact count instead", e);
+			return null;
+		}
+		return result[0];
+	}
+}
@@ -1,501 +1,800 @@
-package net.tatans.project.module.common.hibernate3;
-
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
-import java.util.Map;
-
-import org.hibernate.Query;
-import org.hibernate.Session;
-import org.hibernate.type.Type;
-
-/**
- * Project Name:demo-framework
- * 
- * Package:net.tatans.demo.common.hibernate3
- * 
- * FileName:Finder.java
- * 
- * @author Jie Kim
- * 
- *         Purpose:HQL语句分页查询 。 Finder封装了hql语句和该hql语句所对应的总记录数的语句(select
- *         count(*)), 以及该hql语句对应的参数。它弥补了HQL在动态查询时过于繁琐的缺点。
- * 
- *         Create Time: 2014年5月20日 下午5:37:07
- * 
- *         Create Specification:
- * 
- *         Modified Time:
- * 
- *         Modified by:
- * 
- *         Modified Specification:
- * 
- *         Version: 1.0
- */
-public class Finder
-{
-	protected Finder()
-	{
-		hqlBuilder = new StringBuilder();
-	}
-
-	protected Finder(String hql)
-	{
-		hqlBuilder = new StringBuilder(hql);
-	}
-
-	public static Finder create()
-	{
-		return new Finder();
-	}
-
-	public static Finder create(String hql)
-	{
-		return new Finder(hql);
-	}
-
-	public Finder append(String hql)
-	{
-		hqlBuilder.append(hql);
-		return this;
-	}
-
-	/**
-	 * 获得原始hql语句
-	 * 
-	 * @return
-	 */
-	public String getOrigHql()
-	{
-		return hqlBuilder.toString();
-	}
-
-	/**
-	 * 获得查询数据库记录数的hql语句。
-	 * 
-	 * @return
-	 */
-	public String getRowCountHql()
-	{
-		// 对于from之前的hql语句要转换为select count(*)或select count(属性)
-//		 from之后的hql语句要去掉order by和fetch关键字/////
-		String hql = hqlBuilder.toString();
-
-		int fromIndex = hql.toLowerCase().indexOf(FROM);
-		String projectionHql = hql.substring(0, fromIndex);// from之前的hql语句（投影列Hql）
-
-		hql = hql.substring(fromIndex);// from之后的hql语句
-		String rowCountHql = hql.replace(HQL_FETCH, "");// 获得查询数据库记录数的hql语句,先把fetch给去掉
-
-		int index = rowCountHql.indexOf(ORDER_BY);
-		if (index > 0)
-		{
-			// 如果有order,去掉包括order的order之后的语句
-			rowCountHql = rowCountHql.substring(0, index);
-		}
-		return wrapProjection(projectionHql) + rowCountHql;
-	}
-
-	public int getFirstResult()
-	{
-		return firstResult;
-	}
-
-	public void setFirstResult(int firstResult)
-	{
-		this.firstResult = firstResult;
-	}
-
-	public int getMaxResults()
-	{
-		return maxResults;
-	}
-
-	public void setMaxResults(int maxResults)
-	{
-		this.maxResults = maxResults;
-	}
-
-	/**
-	 * 是否使用查询缓存
-	 * 
-	 * @return
-	 */
-	public boolean isCacheable()
-	{
-		return cacheable;
-	}
-
-	/**
-	 * 设置是否使用查询缓存
-	 * 
-	 * @param cacheable
-	 * @see Query#setCacheable(boolean)
-	 */
-	public void setCacheable(boolean cacheable)
-	{
-		this.cacheable = cacheable;
-	}
-
-	/**
-	 * 设置参数
-	 * 
-	 * @param param
-	 * @param value
-	 * @return
-	 * @see Query#setParameter(String, Object)
-	 */
-	public Finder setParam(String param, Object value)
-	{
-		return setParam(param, value, null);
-	}
-
-	/**
-	 * 设置参数。与hibernate的Query接口一致。
-	 * 
-	 * @param param
-	 * @param value
-	 * @param type
-	 * @return
-	 * @see Query#setParameter(String, Object, Type)
-	 */
-	public Finder setParam(String param, Object value, Type type)
-	{
-		getParams().add(param);
-		getValues().add(value);
-		getTypes().add(type);
-		return this;// 链式编程
-	}
-
-	/**
-	 * 设置参数。与hibernate的Query接口一致。
-	 * 
-	 * @param paramMap
-	 * @return
-	 * @see Query#setProperties(Map)
-	 */
-	public Finder setParams(Map<String, Object> paramMap)
-	{
-		for (Map.Entry<String, Object> entry : paramMap.entrySet())
-		{
-			setParam(entry.getKey(), entry.getValue());
-		}
-		return this;
-	}
-
-	/**
-	 * 设置参数。与hibernate的Query接口一致。
-	 * 
-	 * @param name
-	 * @param vals
-	 * @param type
-	 * @return
-	 * @see Query#setParameterList(String, Collection, Type))
-	 */
-	public Finder setParamList(String name, Collection<Object> vals, Type type)
-	{
-		getParamsList().add(name);
-		getValuesList().add(vals);
-		getTypesList().add(type);
-		return this;
-	}
-
-	/**
-	 * 设置参数。与hibernate的Query接口一致。
-	 * 
-	 * @param name
-	 * @param vals
-	 * @return
-	 * @see Query#setParameterList(String, Collection)
-	 */
-	public Finder setParamList(String name, Collection<Object> vals)
-	{
-		return setParamList(name, vals, null);
-	}
-
-	/**
-	 * 设置参数。与hibernate的Query接口一致。
-	 * 
-	 * @param name
-	 * @param vals
-	 * @param type
-	 * @return
-	 * @see Query#setParameterList(String, Object[], Type)
-	 */
-	public Finder setParamList(String name, Object[] vals, Type type)
-	{
-		getParamsArray().add(name);
-		getValuesArray().add(vals);
-		getTypesArray().add(type);
-		return this;
-	}
-
-	/**
-	 * 设置参数。与hibernate的Query接口一致。
-	 * 
-	 * @param name
-	 * @param vals
-	 * @return
-	 * @see Query#setParameterList(String, Object[])
-	 */
-	public Finder setParamList(String name, Object[] vals)
-	{
-		return setParamList(name, vals, null);
-	}
-
-	/**
-	 * 将finder中的参数设置到query中。
-	 * 
-	 * @param query
-	 */
-	public Query setParamsToQuery(Query query)
-	{
-		if (params != null)
-		{
-			for (int i = 0; i < params.size(); i++)
-			{
-				if (types.get(i) == null)
-				{
-					query.setParameter(params.get(i), values.get(i));
-				} else
-				{
-					query.setParameter(params.get(i), values.get(i),
-							types.get(i));
-				}
-			}
-		}
-		if (paramsList != null)
-		{
-			for (int i = 0; i < paramsList.size(); i++)
-			{
-				if (typesList.get(i) == null)
-				{
-					query.setParameterList(paramsList.get(i), valuesList.get(i));
-				} else
-				{
-					query.setParameterList(paramsList.get(i),
-							valuesList.get(i), typesList.get(i));
-				}
-			}
-		}
-		if (paramsArray != null)
-		{
-			for (int i = 0; i < paramsArray.size(); i++)
-			{
-				if (typesArray.get(i) == null)
-				{
-					query.setParameterList(paramsArray.get(i),
-							valuesArray.get(i));
-				} else
-				{
-					query.setParameterList(paramsArray.get(i),
-							valuesArray.get(i), typesArray.get(i));
-				}
-			}
-		}
-		return query;
-	}
-
-	/**
-	 * Purpose: 根据hql创建query对象，并赋予参数
-	 * 
-	 * @author Jie Kim
-	 * 
-	 *         Create Time: 2014年5月20日 下午5:44:47
-	 * 
-	 * @param s
-	 * @return
-	 * 
-	 *         Version: 1.0
-	 */
-	public Query createQuery(Session s)
-	{
-		Query query = setParamsToQuery(s.createQuery(getOrigHql()));
-		if (getFirstResult() > 0)
-		{
-			query.setFirstResult(getFirstResult());
-		}
-		if (getMaxResults() > 0)
-		{
-			query.setMaxResults(getMaxResults());
-		}
-		if (isCacheable())
-		{
-			query.setCacheable(true);
-		}
-		return query;
-	}
-
-	/**
-	 * Purpose:包装hql语句的投影列，使之符合count()的形势
-	 * 
-	 * @author Jie Kim
-	 * 
-	 *         Create Time: 2014年5月20日 下午5:45:11
-	 * 
-	 * @param projection
-	 *            from之前的hql语句(投影列)
-	 * @return
-	 * 
-	 *         Version: 1.0
-	 */
-	private String wrapProjection(String projection)
-	{
-		if (projection.indexOf("select") == -1)
-		{
-			// 如果没有select关键字，直接返回select count(*)
-			return ROW_COUNT;
-		} else
-		{
-			// 将select关键字替换为"select count("，然后再加上")"
-			return projection.replace("select", "select count(") + ") ";
-		}
-	}
-
-	private List<String> getParams()
-	{
-		if (params == null)
-		{
-			params = new ArrayList<String>();
-		}
-		return params;
-	}
-
-	private List<Object> getValues()
-	{
-		if (values == null)
-		{
-			values = new ArrayList<Object>();
-		}
-		return values;
-	}
-
-	private List<Type> getTypes()
-	{
-		if (types == null)
-		{
-			types = new ArrayList<Type>();
-		}
-		return types;
-	}
-
-	private List<String> getParamsList()
-	{
-		if (paramsList == null)
-		{
-			paramsList = new ArrayList<String>();
-		}
-		return paramsList;
-	}
-
-	private List<Collection<Object>> getValuesList()
-	{
-		if (valuesList == null)
-		{
-			valuesList = new ArrayList<Collection<Object>>();
-		}
-		return valuesList;
-	}
-
-	private List<Type> getTypesList()
-	{
-		if (typesList == null)
-		{
-			typesList = new ArrayList<Type>();
-		}
-		return typesList;
-	}
-
-	private List<String> getParamsArray()
-	{
-		if (paramsArray == null)
-		{
-			paramsArray = new ArrayList<String>();
-		}
-		return paramsArray;
-	}
-
-	private List<Object[]> getValuesArray()
-	{
-		if (valuesArray == null)
-		{
-			valuesArray = new ArrayList<Object[]>();
-		}
-		return valuesArray;
-	}
-
-	private List<Type> getTypesArray()
-	{
-		if (typesArray == null)
-		{
-			typesArray = new ArrayList<Type>();
-		}
-		return typesArray;
-	}
-
-	private StringBuilder hqlBuilder;// StringBuilder类型的hql语句StringBuilder。方便拼接，减小内存消耗。
-
-	/**
-	 * Hibernater Query接口中 public Query setParameter(String name,Object val,Typetype)参数(普通类型) 
-	 * public Query setParameterList(String name,Collectionvals,Type type)参数(集合类型) 
-	 * public Query setParameterList(String name,Object[] vals,Type type)参数(数组类型)
-	 * 因为Finder的参数绑定底层还是调用了Query的以上方法，所以设计成一样的接口方便底层实现和接口API使用
-	 */
-	private List<String> params;// 参数名称
-	private List<Object> values;// 参数(普通类型)
-	private List<Type> types;// 参数类型
-
-	private List<String> paramsList;// 参数名称
-	private List<Collection<Object>> valuesList;// 参数(集合类型)
-	private List<Type> typesList;// 参数类型
-
-	private List<String> paramsArray;// 参数名称
-	private List<Object[]> valuesArray;// 参数(数组类型)
-	private List<Type> typesArray;// 参数类型
-	/**
-	 * 用于分页
-	 */
-	private int firstResult = 0;
-	private int maxResults = 0;
-
-	private boolean cacheable = false;
-
-	public static final String ROW_COUNT = "select count(*) ";
-	public static final String FROM = "from";
-	public static final String DISTINCT = "distinct";
-	public static final String HQL_FETCH = "fetch";
-	public static final String ORDER_BY = "order";
-
-	
-	/**
-	 * @TODO 建议使用junit4，以后补充
-	 * Purpose:测试
-	 * 
-	 * @author Jie Kim
-	 * 
-	 * Create Time: 2014年5月20日 下午5:46:24
-	 * 
-	 * @param args
-	 * 
-	 * Version: 1.0
-	 */
-	public static void main(String[] args)
-	{
-		Finder find = Finder
-				.create("select distinct p FROM BookType join fetch p");
-		System.out.println(find.getRowCountHql());
-		System.out.println(find.getOrigHql());
-		System.out.println("----------------------------");
-		Finder find1 = Finder
-				.create("select distinct b.p FROM BookType b join fetch b.p order by b.de");
-		System.out.println(find1.getRowCountHql());
-		System.out.println(find1.getOrigHql());
-		System.out.println("----------------------------");
-		Finder find2 = Finder
-				.create("FROM BookType b join fetch b.p order by b.de");
-		System.out.println(find2.getRowCountHql());
-		System.out.println(find2.getOrigHql());
-	}
-
+package net.tatans.project.module.common.hibernate3;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.EntityMode;
+import org.hibernate.Query;
+import org.hibernate.Session;
+import org.hibernate.engine.TypedValue;
+import org.hibernate.engine.query.ParameterMetadata;
+import org.hibernate.type.Type;
+import org.hibernate.type.TypeFactory;
+
+/**
+ * Project Name:demo-framework
+ * 
+ * Package:net.tatans.demo.common.hibernate3
+ * 
+ * FileName:Finder.java
+ * 
+ * @author Jie Kim
+ * 
+ *         Purpose:HQL语句分页查询 。 Finder封装了hql语句和该hql语句所对应的总记录数的语句(select
+ *         count(*)), 以及该hql语句对应的参数。它弥补了HQL在动态查询时过于繁琐的缺点。
+ * 
+ *         Create Time: 2014年5月20日 下午5:37:07
+ * 
+ *         Create Specification:
+ * 
+ *         Modified Time:
+ * 
+ *         Modified by:
+ * 
+ *         Modified Specification:
+ * 
+ *         Version: 1.0
+ */
+public class Finder
+{
+	protected Finder()
+	{
+		hqlBuilder = new StringBuilder();
+	}
+
+	protected Finder(String hql)
+	{
+		hqlBuilder = new StringBuilder(hql);
+	}
+
+	/**
+	 * 由FinderTemplate创建，直接使用模板中已经生成好的hql语句和count语句
+	 * 
+	 * @param template
+	 */
+	protected Finder(FinderTemplate template)
+	{
+		origHql = template.getHql();
+		rowCountHql = template.getRowCountHql();
+	}
+
+	public static Finder create()
+	{
+		return new Finder();
+	}
+
+	public static Finder create(String hql)
+	{
+		return new Finder(hql);
+	}
+
+	public Finder append(String hql)
+	{
+		if (hqlBuilder == null)
+		{
+			hqlBuilder = new StringBuilder(origHql);
+		}
+		hqlBuilder.append(hql);
+		origHql = null;
+		rowCountHql = null;
+		return this;
+	}
+
+	/**
+	 * 获得原始hql语句
+	 * 
+	 * @return
+	 */
+	public String getOrigHql()
+	{
+		if (origHql == null)
+		{
+			origHql = hqlBuilder.toString();
+		}
+		return origHql;
+	}
+
+	/**
+	 * 获得查询数据库记录数的hql语句。生成后缓存，直到再次append。
+	 * 
+	 * @return
+	 */
+	public String getRowCountHql()
+	{
+		if (rowCountHql == null)
+		{
+			rowCountHql = toRowCountHql(getOrigHql());
+		}
+		return rowCountHql;
+	}
+
+	/**
+	 * 将hql语句转换为查询数据库记录数的hql语句。
+	 * 
+	 * @param hql
+	 * @return
+	 */
+	static String toRowCountHql(String hql)
+	{
+		// 对于from之前的hql语句要转换为select count(*)或select count(属性)
+//		 from之后的hql语句要去掉order by和fetch关键字/////
+		int fromIndex = hql.toLowerCase().indexOf(FROM);
+		String projectionHql = hql.substring(0, fromIndex);// from之前的hql语句（投影列Hql）
+
+		hql = hql.substring(fromIndex);// from之后的hql语句
+		String rowCountHql = hql.replace(HQL_FETCH, "");// 获得查询数据库记录数的hql语句,先把fetch给去掉
+
+		int index = rowCountHql.indexOf(ORDER_BY);
+		if (index > 0)
+		{
+			// 如果有order,去掉包括order的order之后的语句
+			rowCountHql = rowCountHql.substring(0, index);
+		}
+		return wrapProjection(projectionHql) + rowCountHql;
+	}
+
+	/**
+	 * 添加keyset(seek)分页的排序键。所有排序键按添加顺序组成一个有序且唯一的键，
+	 * 最后一个排序键通常为id。排序键应当有索引，否则翻页仍然需要扫描。
+	 * 
+	 * @param property
+	 *            带实体别名的属性，如bean.id
+	 * @param desc
+	 *            是否倒序
+	 * @return
+	 */
+	public Finder addSeekKey(String property, boolean desc)
+	{
+		getSeekKeys().add(property);
+		getSeekDescs().add(desc);
+		return this;
+	}
+
+	/**
+	 * 获得keyset分页的排序键
+	 * 
+	 * @return
+	 */
+	public List<String> getSeekKeys()
+	{
+		if (seekKeys == null)
+		{
+			seekKeys = new ArrayList<String>();
+		}
+		return seekKeys;
+	}
+
+	/**
+	 * 获得keyset分页的hql语句：在原始hql语句上加上定位条件和排序键对应的order by。
+	 * 定位条件的参数名为SEEK_PARAM加排序键下标，如seekKey0。
+	 * 
+	 * 原始hql语句中不能包含order by和group by；如包含where，原有条件会整体加上括号。
+	 * 只识别主查询的where，括号中的子查询和字符串常量中的where不影响定位条件的位置。
+	 * 排序键的值不能为null，否则定位条件会跳过数据。
+	 * 
+	 * @param seek
+	 *            是否加上定位条件。查询第一页时为false
+	 * @return
+	 */
+	public String getSeekHql(boolean seek)
+	{
+		List<String> keys = getSeekKeys();
+		List<Boolean> descs = getSeekDescs();
+		String hql = getOrigHql();
+		if (seek)
+		{
+			// (k0 > :seekKey0) or (k0 = :seekKey0 and k1 > :seekKey1) or ...
+			StringBuilder predicate = new StringBuilder();
+			for (int i = 0; i < keys.size(); i++)
+			{
+				if (i > 0)
+				{
+					predicate.append(" or ");
+				}
+				predicate.append("(");
+				for (int j = 0; j < i; j++)
+				{
+					predicate.append(keys.get(j)).append(" = :")
+							.append(SEEK_PARAM).append(j).append(" and ");
+				}
+				predicate.append(keys.get(i))
+						.append(descs.get(i) ? " < :" : " > :")
+						.append(SEEK_PARAM).append(i).append(")");
+			}
+			int whereIndex = indexOfWhere(hql);
+			if (whereIndex == -1)
+			{
+				hql = hql + WHERE + predicate;
+			} else
+			{
+				hql = hql.substring(0, whereIndex) + WHERE_KEYWORD + " (" + predicate
+						+ ") and ("
+						+ hql.substring(whereIndex + WHERE_KEYWORD.length()) + ")";
+			}
+		}
+		StringBuilder orderBy = new StringBuilder(" order by ");
+		for (int i = 0; i < keys.size(); i++)
+		{
+			if (i > 0)
+			{
+				orderBy.append(", ");
+			}
+			orderBy.append(keys.get(i)).append(
+					descs.get(i) ? " desc" : " asc");
+		}
+		return hql + orderBy;
+	}
+
+	public int getFirstResult()
+	{
+		return firstResult;
+	}
+
+	public void setFirstResult(int firstResult)
+	{
+		this.firstResult = firstResult;
+	}
+
+	public int getMaxResults()
+	{
+		return maxResults;
+	}
+
+	public void setMaxResults(int maxResults)
+	{
+		this.maxResults = maxResults;
+	}
+
+	/**
+	 * 是否使用查询缓存
+	 * 
+	 * @return
+	 */
+	public boolean isCacheable()
+	{
+		return cacheable;
+	}
+
+	/**
+	 * 设置是否使用查询缓存
+	 * 
+	 * @param cacheable
+	 * @see Query#setCacheable(boolean)
+	 */
+	public void setCacheable(boolean cacheable)
+	{
+		this.cacheable = cacheable;
+	}
+
+	/**
+	 * 是否允许使用估算的总记录数
+	 * 
+	 * @return
+	 */
+	public boolean isApproximateCount()
+	{
+		return approximateThreshold > 0;
+	}
+
+	/**
+	 * 估算总记录数的阈值
+	 * 
+	 * @return
+	 */
+	public int getApproximateThreshold()
+	{
+		return approximateThreshold;
+	}
+
+	/**
+	 * 允许分页时使用估算的总记录数。估算值不小于阈值时直接使用估算值，不再执行count语句；
+	 * 否则仍然执行count语句得到精确值。目前只支持MySQL。
+	 * 
+	 * @param threshold
+	 *            阈值，小于1时不估算
+	 * @return
+	 */
+	public Finder setApproximateCount(int threshold)
+	{
+		this.approximateThreshold = threshold;
+		return this;
+	}
+
+	/**
+	 * 设置参数
+	 * 
+	 * @param param
+	 * @param value
+	 * @return
+	 * @see Query#setParameter(String, Object)
+	 */
+	public Finder setParam(String param, Object value)
+	{
+		return setParam(param, value, null);
+	}
+
+	/**
+	 * 设置参数。与hibernate的Query接口一致。
+	 * 
+	 * @param param
+	 * @param value
+	 * @param type
+	 * @return
+	 * @see Query#setParameter(String, Object, Type)
+	 */
+	public Finder setParam(String param, Object value, Type type)
+	{
+		getParams().add(param);
+		getValues().add(value);
+		getTypes().add(type);
+		return this;// 链式编程
+	}
+
+	/**
+	 * 设置参数。与hibernate的Query接口一致。
+	 * 
+	 * @param paramMap
+	 * @return
+	 * @see Query#setProperties(Map)
+	 */
+	public Finder setParams(Map<String, Object> paramMap)
+	{
+		for (Map.Entry<String, Object> entry : paramMap.entrySet())
+		{
+			setParam(entry.getKey(), entry.getValue());
+		}
+		return this;
+	}
+
+	/**
+	 * 设置参数。与hibernate的Query接口一致。
+	 * 
+	 * @param name
+	 * @param vals
+	 * @param type
+	 * @return
+	 * @see Query#setParameterList(String, Collection, Type))
+	 */
+	public Finder setParamList(String name, Collection<Object> vals, Type type)
+	{
+		getParamsList().add(name);
+		getValuesList().add(vals);
+		getTypesList().add(type);
+		return this;
+	}
+
+	/**
+	 * 设置参数。与hibernate的Query接口一致。
+	 * 
+	 * @param name
+	 * @param vals
+	 * @return
+	 * @see Query#setParameterList(String, Collection)
+	 */
+	public Finder setParamList(String name, Collection<Object> vals)
+	{
+		return setParamList(name, vals, null);
+	}
+
+	/**
+	 * 设置参数。与hibernate的Query接口一致。
+	 * 
+	 * @param name
+	 * @param vals
+	 * @param type
+	 * @return
+	 * @see Query#setParameterList(String, Object[], Type)
+	 */
+	public Finder setParamList(String name, Object[] vals, Type type)
+	{
+		getParamsArray().add(name);
+		getValuesArray().add(vals);
+		getTypesArray().add(type);
+		return this;
+	}
+
+	/**
+	 * 设置参数。与hibernate的Query接口一致。
+	 * 
+	 * @param name
+	 * @param vals
+	 * @return
+	 * @see Query#setParameterList(String, Object[])
+	 */
+	public Finder setParamList(String name, Object[] vals)
+	{
+		return setParamList(name, vals, null);
+	}
+
+	/**
+	 * 将finder中的参数设置到query中。
+	 * 
+	 * @param query
+	 */
+	public Query setParamsToQuery(Query query)
+	{
+		if (params != null)
+		{
+			for (int i = 0; i < params.size(); i++)
+			{
+				if (types.get(i) == null)
+				{
+					query.setParameter(params.get(i), values.get(i));
+				} else
+				{
+					query.setParameter(params.get(i), values.get(i),
+							types.get(i));
+				}
+			}
+		}
+		if (paramsList != null)
+		{
+			for (int i = 0; i < paramsList.size(); i++)
+			{
+				if (typesList.get(i) == null)
+				{
+					query.setParameterList(paramsList.get(i), valuesList.get(i));
+				} else
+				{
+					query.setParameterList(paramsList.get(i),
+							valuesList.get(i), typesList.get(i));
+				}
+			}
+		}
+		if (paramsArray != null)
+		{
+			for (int i = 0; i < paramsArray.size(); i++)
+			{
+				if (typesArray.get(i) == null)
+				{
+					query.setParameterList(paramsArray.get(i),
+							valuesArray.get(i));
+				} else
+				{
+					query.setParameterList(paramsArray.get(i),
+							valuesArray.get(i), typesArray.get(i));
+				}
+			}
+		}
+		return query;
+	}
+
+	/**
+	 * 获得普通类型参数的名称和带类型的值，用于不经过Query直接绑定参数。
+	 * 未指定类型的参数按hql中的期望类型或参数值的类型推断。
+	 * 
+	 * @param metadata
+	 *            hql查询计划中的参数信息
+	 * @return 有集合或数组类型的参数，或者无法推断参数类型时返回null
+	 */
+	Map<String, TypedValue> getTypedParams(ParameterMetadata metadata)
+	{
+		if ((paramsList != null && !paramsList.isEmpty())
+				|| (paramsArray != null && !paramsArray.isEmpty()))
+		{
+			return null;
+		}
+		Map<String, TypedValue> typedParams = new HashMap<String, TypedValue>();
+		if (params != null)
+		{
+			for (int i = 0; i < params.size(); i++)
+			{
+				Object value = values.get(i);
+				Type type = types.get(i);
+				if (type == null)
+				{
+					type = metadata.getNamedParameterExpectedType(params.get(i));
+				}
+				if (type == null && value != null)
+				{
+					type = TypeFactory.heuristicType(value.getClass().getName());
+				}
+				if (type == null)
+				{
+					return null;
+				}
+				typedParams.put(params.get(i), new TypedValue(type, value,
+						EntityMode.POJO));
+			}
+		}
+		return typedParams;
+	}
+
+	/**
+	 * 获得参数的键值。参数名称和参数值都相同的两个Finder，键值相等。用于缓存按参数区分的查询结果。
+	 * 
+	 * @return
+	 */
+	public List<Object> getParamsKey()
+	{
+		List<Object> key = new ArrayList<Object>();
+		if (params != null)
+		{
+			key.addAll(params);
+			key.addAll(values);
+		}
+		if (paramsList != null)
+		{
+			key.addAll(paramsList);
+			for (Collection<Object> vals : valuesList)
+			{
+				key.add(new ArrayList<Object>(vals));
+			}
+		}
+		if (paramsArray != null)
+		{
+			key.addAll(paramsArray);
+			for (Object[] vals : valuesArray)
+			{
+				key.add(Arrays.asList(vals));
+			}
+		}
+		return key;
+	}
+
+	/**
+	 * Purpose: 根据hql创建query对象，并赋予参数
+	 * 
+	 * @author Jie Kim
+	 * 
+	 *         Create Time: 2014年5月20日 下午5:44:47
+	 * 
+	 * @param s
+	 * @return
+	 * 
+	 *         Version: 1.0
+	 */
+	public Query createQuery(Session s)
+	{
+		Query query = setParamsToQuery(s.createQuery(getOrigHql()));
+		if (getFirstResult() > 0)
+		{
+			query.setFirstResult(getFirstResult());
+		}
+		if (getMaxResults() > 0)
+		{
+			query.setMaxResults(getMaxResults());
+		}
+		if (isCacheable())
+		{
+			query.setCacheable(true);
+		}
+		return query;
+	}
+
+	/**
+	 * Purpose:包装hql语句的投影列，使之符合count()的形势
+	 * 
+	 * @author Jie Kim
+	 * 
+	 *         Create Time: 2014年5月20日 下午5:45:11
+	 * 
+	 * @param projection
+	 *            from之前的hql语句(投影列)
+	 * @return
+	 * 
+	 *         Version: 1.0
+	 */
+	private static String wrapProjection(String projection)
+	{
+		if (projection.indexOf("select") == -1)
+		{
+			// 如果没有select关键字，直接返回select count(*)
+			return ROW_COUNT;
+		} else
+		{
+			// 将select关键字替换为"select count("，然后再加上")"
+			return projection.replace("select", "select count(") + ") ";
+		}
+	}
+
+	/**
+	 * 主查询中where关键字的位置：跳过括号(子查询、with条件中的子查询)和字符串常量，
+	 * where前后必须是空白(空格、换行、制表符)或括号，不匹配where开头或结尾的标识符
+	 * 
+	 * @return 没有时返回-1
+	 */
+	private static int indexOfWhere(String hql)
+	{
+		String lower = hql.toLowerCase();
+		int depth = 0;
+		boolean quoted = false;
+		for (int i = 0; i < lower.length(); i++)
+		{
+			char c = lower.charAt(i);
+			if (c == '\'')
+			{
+				quoted = !quoted;
+			} else if (quoted)
+			{
+				continue;
+			} else if (c == '(')
+			{
+				depth++;
+			} else if (c == ')')
+			{
+				depth--;
+			} else if (depth == 0 && lower.startsWith(WHERE_KEYWORD, i)
+					&& i > 0 && isWhereBoundary(lower.charAt(i - 1))
+					&& i + WHERE_KEYWORD.length() < lower.length()
+					&& isWhereBoundary(lower.charAt(i + WHERE_KEYWORD.length())))
+			{
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static boolean isWhereBoundary(char c)
+	{
+		return Character.isWhitespace(c) || c == '(' || c == ')';
+	}
+
+	private List<String> getParams()
+	{
+		if (params == null)
+		{
+			params = new ArrayList<String>();
+		}
+		return params;
+	}
+
+	private List<Object> getValues()
+	{
+		if (values == null)
+		{
+			values = new ArrayList<Object>();
+		}
+		return values;
+	}
+
+	private List<Type> getTypes()
+	{
+		if (types == null)
+		{
+			types = new ArrayList<Type>();
+		}
+		return types;
+	}
+
+	private List<String> getParamsList()
+	{
+		if (paramsList == null)
+		{
+			paramsList = new ArrayList<String>();
+		}
+		return paramsList;
+	}
+
+	private List<Collection<Object>> getValuesList()
+	{
+		if (valuesList == null)
+		{
+			valuesList = new ArrayList<Collection<Object>>();
+		}
+		return valuesList;
+	}
+
+	private List<Type> getTypesList()
+	{
+		if (typesList == null)
+		{
+			typesList = new ArrayList<Type>();
+		}
+		return typesList;
+	}
+
+	private List<String> getParamsArray()
+	{
+		if (paramsArray == null)
+		{
+			paramsArray = new ArrayList<String>();
+		}
+		return paramsArray;
+	}
+
+	private List<Object[]> getValuesArray()
+	{
+		if (valuesArray == null)
+		{
+			valuesArray = new ArrayList<Object[]>();
+		}
+		return valuesArray;
+	}
+
+	private List<Type> getTypesArray()
+	{
+		if (typesArray == null)
+		{
+			typesArray = new ArrayList<Type>();
+		}
+		return typesArray;
+	}
+
+	private List<Boolean> getSeekDescs()
+	{
+		if (seekDescs == null)
+		{
+			seekDescs = new ArrayList<Boolean>();
+		}
+		return seekDescs;
+	}
+
+	private StringBuilder hqlBuilder;// StringBuilder类型的hql语句StringBuilder。方便拼接，减小内存消耗。
+	private String origHql;// 原始hql语句，append之后重新生成
+	private String rowCountHql;// 查询记录数的hql语句，append之后重新生成
+
+	/**
+	 * Hibernater Query接口中 public Query setParameter(String name,Object val,Typetype)参数(普通类型) 
+	 * public Query setParameterList(String name,Collectionvals,Type type)参数(集合类型) 
+	 * public Query setParameterList(String name,Object[] vals,Type type)参数(数组类型)
+	 * 因为Finder的参数绑定底层还是调用了Query的以上方法，所以设计成一样的接口方便底层实现和接口API使用
+	 */
+	private List<String> params;// 参数名称
+	private List<Object> values;// 参数(普通类型)
+	private List<Type> types;// 参数类型
+
+	private List<String> paramsList;// 参数名称
+	private List<Collection<Object>> valuesList;// 参数(集合类型)
+	private List<Type> typesList;// 参数类型
+
+	private List<String> paramsArray;// 参数名称
+	private List<Object[]> valuesArray;// 参数(数组类型)
+	private List<Type> typesArray;// 参数类型
+
+	private List<String> seekKeys;// keyset分页的排序键
+	private List<Boolean> seekDescs;// 排序键是否倒序
+	/**
+	 * 用于分页
+	 */
+	private int firstResult = 0;
+	private int maxResults = 0;
+
+	private boolean cacheable = false;
+	private int approximateThreshold = 0;// 估算总记录数的阈值，0表示不估算
+
+	public static final String ROW_COUNT = "select count(*) ";
+	public static final String FROM = "from";
+	public static final String DISTINCT = "distinct";
+	public static final String HQL_FETCH = "fetch";
+	public static final String ORDER_BY = "order";
+	public static final String WHERE = " where ";
+	private static final String WHERE_KEYWORD = "where";
+	public static final String SEEK_PARAM = "seekKey";
+
+	
+	/**
+	 * @TODO 建议使用junit4，以后补充
+	 * Purpose:测试
+	 * 
+	 * @author Jie Kim
+	 * 
+	 * Create Time: 2014年5月20日 下午5:46:24
+	 * 
+	 * @param args
+	 * 
+	 * Version: 1.0
+	 */
+	public static void main(String[] args)
+	{
+		Finder find = Finder
+				.create("select distinct p FROM BookType join fetch p");
+		System.out.println(find.getRowCountHql());
+		System.out.println(find.getOrigHql());
+		System.out.println("----------------------------");
+		Finder find1 = Finder
+				.create("select distinct b.p FROM BookType b join fetch b.p order by b.de");
+		System.out.println(find1.getRowCountHql());
+		System.out.println(find1.getOrigHql());
+		System.out.println("----------------------------");
+		Finder find2 = Finder
+				.create("FROM BookType b join fetch b.p order by b.de");
+		System.out.println(find2.getRowCountHql());
+		System.out.println(find2.getOrigHql());
+	}
+
 }
\ No newline at end of file
@@ -1,281 +1,923 @@
-package net.tatans.project.module.common.hibernate3;
-
-import static org.hibernate.EntityMode.POJO;
-
-import java.io.Serializable;
-import java.util.List;
-
-import net.tatans.project.module.common.util.MyBeanUtils;
-
-import org.hibernate.Criteria;
-import org.hibernate.LockMode;
-import org.hibernate.criterion.Criterion;
-import org.hibernate.criterion.Projections;
-import org.hibernate.criterion.Restrictions;
-import org.hibernate.metadata.ClassMetadata;
-import org.springframework.util.Assert;
-
-/**
- * Project Name:demo-framework
- * 
- * Package:net.tatans.demo.common.hibernate3
- * 
- * FileName:HibernateBaseDao.java
- * 
- * @author Jie Kim
- * 
- *         Purpose: hibernate DAO基类<br>
- *         提供QBC分页查询，拷贝更新等一些常用功能
- * 
- *         Create Time: 2014年5月20日 下午4:17:58
- * 
- *         Create Specification:
- * 
- *         Modified Time:
- * 
- *         Modified by:
- * 
- *         Modified Specification:
- * 
- * @param <T>
- *            entity class
- * @param <ID>
- *            entity id
- * 
- *            Version: 1.0
- */
-public abstract class HibernateBaseDao<T, ID extends Serializable> extends
-		HibernateSimpleDao
-{
-
-	/**
-	 * Purpose:
-	 * 
-	 * @author Jie Kim
-	 * 
-	 *         Create Time: 2014年5月20日 下午4:28:02
-	 * @see Session.get(Class,Serializable)
-	 * @param id
-	 * @return 持久化对象
-	 * 
-	 *         Version: 1.0
-	 */
-	protected T get(ID id)
-	{
-		return get(id, false);
-	}
-
-	/**
-	 * Purpose:
-	 * 
-	 * @author Jie Kim
-	 * 
-	 *         Create Time: 2014年5月20日 下午4:28:38
-	 * @see Session.get(Class,Serializable,LockMode)
-	 * @param id
-	 *            对象ID
-	 * @param lock
-	 *            是否锁定，使用LockMode.UPGRADE
-	 * @return 持久化对象
-	 * 
-	 *         Version: 1.0
-	 */
-	@SuppressWarnings("unchecked")
-	protected T get(ID id, boolean lock)
-	{
-		T entity;
-		if (lock)
-		{
-			entity = (T) getSession().get(getEntityClass(), id,
-					LockMode.UPGRADE);
-		} else
-		{
-			entity = (T) getSession().get(getEntityClass(), id);
-		}
-		return entity;
-	}
-
-	/**
-	 * Purpose: 按属性查找对象列表
-	 * 
-	 * @author Jie Kim
-	 * 
-	 *         Create Time: 2014年5月20日 下午4:30:39
-	 * 
-	 * @param property
-	 * @param value
-	 * @return
-	 * 
-	 *         Version: 1.0
-	 */
-	@SuppressWarnings("unchecked")
-	protected List<T> findByProperty(String property, Object value)
-	{
-		Assert.hasText(property);
-		return createCriteria(Restrictions.eq(property, value)).list();
-	}
-
-	/**
-	 * Purpose: 按属性查找唯一对象
-	 * 
-	 * @author Jie Kim
-	 * 
-	 *         Create Time: 2014年5月20日 下午4:31:14
-	 * 
-	 * @param property
-	 * @param value
-	 * @return
-	 * 
-	 *         Version: 1.0
-	 */
-	@SuppressWarnings("unchecked")
-	protected T findUniqueByProperty(String property, Object value)
-	{
-		Assert.hasText(property);
-		Assert.notNull(value);
-		return (T) createCriteria(Restrictions.eq(property, value))
-				.uniqueResult();
-	}
-
-	/**
-	 * Purpose: 按属性统计记录数
-	 * 
-	 * @author Jie Kim
-	 * 
-	 *         Create Time: 2014年5月20日 下午4:32:31
-	 * 
-	 * @param property
-	 * @param value
-	 * @return
-	 * 
-	 *         Version: 1.0
-	 */
-	protected int countByProperty(String property, Object value)
-	{
-		Assert.hasText(property);
-		Assert.notNull(value);
-		return ((Number) (createCriteria(Restrictions.eq(property, value))
-				.setProjection(Projections.rowCount()).uniqueResult()))
-				.intValue();
-	}
-
-	/**
-	 * Purpose: 按Criterion查询列表数据.
-	 * 
-	 * @author Jie Kim
-	 * 
-	 *         Create Time: 2014年5月20日 下午4:32:45
-	 * 
-	 * @param criterion
-	 *            数量可变的Criterion.
-	 * @return
-	 * 
-	 *         Version: 1.0
-	 */
-	@SuppressWarnings("rawtypes")
-	protected List findByCriteria(Criterion... criterion)
-	{
-		return createCriteria(criterion).list();
-	}
-
-	/**
-	 * Purpose: 根据Criterion条件创建Criteria,后续可进行更多处理,辅助函数.
-	 * 
-	 * @author Jie Kim
-	 * 
-	 *         Create Time: 2014年5月20日 下午4:33:47
-	 * 
-	 * @param criterions
-	 * @return
-	 * 
-	 *         Version: 1.0
-	 */
-	protected Criteria createCriteria(Criterion... criterions)
-	{
-		Criteria criteria = getSession().createCriteria(getEntityClass());
-		for (Criterion c : criterions)
-		{
-			criteria.add(c);
-		}
-		return criteria;
-	}
-
-	/**
-	 * Purpose: 通过Updater更新对象
-	 * 
-	 * @author Jie Kim
-	 * 
-	 *         Create Time: 2014年5月20日 下午4:33:07
-	 * 
-	 * @param updater
-	 * @return
-	 * 
-	 *         Version: 1.0
-	 */
-	@SuppressWarnings("unchecked")
-	public T updateByUpdater(Updater<T> updater)
-	{
-		ClassMetadata cm = sessionFactory.getClassMetadata(getEntityClass());
-		T bean = updater.getBean();
-		T po = (T) getSession().get(getEntityClass(),
-				cm.getIdentifier(bean, POJO));
-		updaterCopyToPersistentObject(updater, po, cm);
-		return po;
-	}
-
-	/**
-	 * Purpose: 将更新对象拷贝至实体对象，并处理many-to-one的更新。
-	 * 
-	 * @author Jie Kim
-	 * 
-	 *         Create Time: 2014年5月20日 下午4:33:22
-	 * 
-	 * @param updater
-	 * @param po
-	 * @param cm
-	 * 
-	 *            Version: 1.0
-	 */
-	private void updaterCopyToPersistentObject(Updater<T> updater, T po,
-			ClassMetadata cm)
-	{
-		String[] propNames = cm.getPropertyNames();
-		String identifierName = cm.getIdentifierPropertyName();
-		T bean = updater.getBean();
-		Object value;
-		for (String propName : propNames)
-		{
-			if (propName.equals(identifierName))
-			{
-				continue;
-			}
-			try
-			{
-				value = MyBeanUtils.getSimpleProperty(bean, propName);
-				if (!updater.isUpdate(propName, value))
-				{
-					continue;
-				}
-				cm.setPropertyValue(po, propName, value, POJO);
-			} catch (Exception e)
-			{
-				throw new RuntimeException(
-						"copy property to persistent object failed: '"
-								+ propName + "'", e);
-			}
-		}
-	}
-
-	/**
-	 * Purpose: 获得Dao对于的实体类
-	 * 
-	 * @author Jie Kim
-	 * 
-	 *         Create Time: 2014年5月20日 下午4:34:00
-	 * 
-	 * @return
-	 * 
-	 *         Version: 1.0
-	 */
-	abstract protected Class<T> getEntityClass();
-}
+package net.tatans.project.module.common.hibernate3;
+
+import static org.hibernate.EntityMode.POJO;
+
+import java.io.Serializable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.transaction.Synchronization;
+
+import net.tatans.project.module.common.util.BeanAccessor;
+import net.tatans.project.module.common.util.BeanAccessors;
+
+import org.hibernate.CacheMode;
+import org.hibernate.Criteria;
+import org.hibernate.LockMode;
+import org.hibernate.Session;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.hibernate.cache.CacheKey;
+import org.hibernate.cache.UpdateTimestampsCache;
+import org.hibernate.criterion.Criterion;
+import org.hibernate.criterion.Projections;
+import org.hibernate.criterion.Restrictions;
+import org.hibernate.engine.EntityEntry;
+import org.hibernate.engine.EntityKey;
+import org.hibernate.engine.SessionFactoryImplementor;
+import org.hibernate.engine.SessionImplementor;
+import org.hibernate.engine.Status;
+import org.hibernate.jdbc.Work;
+import org.hibernate.metadata.ClassMetadata;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.type.Type;
+import org.springframework.util.Assert;
+
+/**
+ * Project Name:demo-framework
+ * 
+ * Package:net.tatans.demo.common.hibernate3
+ * 
+ * FileName:HibernateBaseDao.java
+ * 
+ * @author Jie Kim
+ * 
+ *         Purpose: hibernate DAO基类<br>
+ *         提供QBC分页查询，拷贝更新等一些常用功能
+ * 
+ *         Create Time: 2014年5月20日 下午4:17:58
+ * 
+ *         Create Specification:
+ * 
+ *         Modified Time:
+ * 
+ *         Modified by:
+ * 
+ *         Modified Specification:
+ * 
+ * @param <T>
+ *            entity class
+ * @param <ID>
+ *            entity id
+ * 
+ *            Version: 1.0
+ */
+public abstract class HibernateBaseDao<T, ID extends Serializable> extends
+		HibernateSimpleDao
+{
+	/**
+	 * 未配置hibernate.jdbc.batch_size时，批量写入每批的数量
+	 */
+	protected static final int DEFAULT_BATCH_SIZE = 20;
+	/**
+	 * getAll每次in查询的最大ID数
+	 */
+	protected static final int GET_ALL_BATCH_SIZE = 500;
+
+	/**
+	 * Purpose:
+	 * 
+	 * @author Jie Kim
+	 * 
+	 *         Create Time: 2014年5月20日 下午4:28:02
+	 * @see Session.get(Class,Serializable)
+	 * @param id
+	 * @return 持久化对象
+	 * 
+	 *         Version: 1.0
+	 */
+	protected T get(ID id)
+	{
+		return get(id, false);
+	}
+
+	/**
+	 * Purpose:
+	 * 
+	 * @author Jie Kim
+	 * 
+	 *         Create Time: 2014年5月20日 下午4:28:38
+	 * @see Session.get(Class,Serializable,LockMode)
+	 * @param id
+	 *            对象ID
+	 * @param lock
+	 *            是否锁定，使用LockMode.UPGRADE
+	 * @return 持久化对象
+	 * 
+	 *         Version: 1.0
+	 */
+	@SuppressWarnings("unchecked")
+	protected T get(ID id, boolean lock)
+	{
+		T entity;
+		if (lock)
+		{
+			entity = (T) getSession().get(getEntityClass(), id,
+					LockMode.UPGRADE);
+		} else
+		{
+			entity = (T) getSession().get(getEntityClass(), id);
+		}
+		return entity;
+	}
+
+	/**
+	 * Purpose: 按ID批量获取对象，按ids的顺序返回，不存在的ID忽略。<br>
+	 * 依次从当前session和二级缓存中获取，剩下的ID分批使用in查询，每批最多GET_ALL_BATCH_SIZE个。
+	 * 
+	 *         Create Time: 2026年10月17日 下午5:10:24
+	 * 
+	 * @param ids
+	 *            对象ID
+	 * @return 持久化对象列表
+	 * 
+	 *         Version: 1.0
+	 */
+	@SuppressWarnings("unchecked")
+	protected List<T> getAll(Collection<ID> ids)
+	{
+		Session session = getSession();
+		SessionImplementor si = (SessionImplementor) session;
+		EntityPersister persister = si.getFactory().getEntityPersister(
+				getEntityClass().getName());
+		boolean useCache = persister.hasCache()
+				&& session.getCacheMode().isGetEnabled();
+		Map<ID, T> found = new HashMap<ID, T>();
+		Set<ID> missing = new LinkedHashSet<ID>();
+		for (ID id : ids)
+		{
+			if (id == null || found.containsKey(id) || missing.contains(id))
+			{
+				continue;
+			}
+			Object entity = si.getPersistenceContext().getEntity(
+					new EntityKey(id, persister, POJO));
+			if (entity != null)
+			{
+				EntityEntry entry = si.getPersistenceContext()
+						.getEntry(entity);
+				if (entry.getStatus() != Status.DELETED
+						&& entry.getStatus() != Status.GONE)
+				{
+					found.put(id, (T) entity);
+				}
+				continue;
+			}
+			if (useCache
+					&& persister.getCacheAccessStrategy().get(
+							new CacheKey(id, persister.getIdentifierType(),
+									persister.getRootEntityName(), POJO,
+									si.getFactory()), si.getTimestamp()) != null)
+			{
+				// 二级缓存中已有，get不会查询数据库
+				found.put(id, get(id));
+				continue;
+			}
+			missing.add(id);
+		}
+		String idName = persister.getIdentifierPropertyName();
+		List<Object> missingIds = new ArrayList<Object>(missing);
+		for (int i = 0; i < missingIds.size(); i += GET_ALL_BATCH_SIZE)
+		{
+			List<Object> batch = missingIds.subList(i,
+					Math.min(i + GET_ALL_BATCH_SIZE, missingIds.size()));
+			Finder f = Finder.create("from "
+					+ getEntityClass().getName() + " bean where bean."
+					+ idName + " in (:ids)");
+			f.setParamList("ids", batch);
+			for (Object entity : find(f))
+			{
+				found.put((ID) persister.getIdentifier(entity, POJO),
+						(T) entity);
+			}
+		}
+		List<T> list = new ArrayList<T>(ids.size());
+		for (ID id : ids)
+		{
+			T entity = found.get(id);
+			if (entity != null)
+			{
+				list.add(entity);
+			}
+		}
+		return list;
+	}
+
+	/**
+	 * Purpose: 按属性查找对象列表
+	 * 
+	 * @author Jie Kim
+	 * 
+	 *         Create Time: 2014年5月20日 下午4:30:39
+	 * 
+	 * @param property
+	 * @param value
+	 * @return
+	 * 
+	 *         Version: 1.0
+	 */
+	@SuppressWarnings("unchecked")
+	protected List<T> findByProperty(String property, Object value)
+	{
+		Assert.hasText(property);
+		return createCriteria(Restrictions.eq(property, value)).list();
+	}
+
+	/**
+	 * Purpose: 按属性查找唯一对象
+	 * 
+	 * @author Jie Kim
+	 * 
+	 *         Create Time: 2014年5月20日 下午4:31:14
+	 * 
+	 * @param property
+	 * @param value
+	 * @return
+	 * 
+	 *         Version: 1.0
+	 */
+	@SuppressWarnings("unchecked")
+	protected T findUniqueByProperty(String property, Object value)
+	{
+		Assert.hasText(property);
+		Assert.notNull(value);
+		return (T) createCriteria(Restrictions.eq(property, value))
+				.uniqueResult();
+	}
+
+	/**
+	 * Purpose: 按属性统计记录数
+	 * 
+	 * @author Jie Kim
+	 * 
+	 *         Create Time: 2014年5月20日 下午4:32:31
+	 * 
+	 * @param property
+	 * @param value
+	 * @return
+	 * 
+	 *         Version: 1.0
+	 */
+	protected int countByProperty(String property, Object value)
+	{
+		Assert.hasText(property);
+		Assert.notNull(value);
+		return ((Number) (createCriteria(Restrictions.eq(property, value))
+				.setProjection(Projections.rowCount()).uniqueResult()))
+				.intValue();
+	}
+
+	/**
+	 * Purpose: 按Criterion查询列表数据.
+	 * 
+	 * @author Jie Kim
+	 * 
+	 *         Create Time: 2014年5月20日 下午4:32:45
+	 * 
+	 * @param criterion
+	 *            数量可变的Criterion.
+	 * @return
+	 * 
+	 *         Version: 1.0
+	 */
+	@SuppressWarnings("rawtypes")
+	protected List findByCriteria(Criterion... criterion)
+	{
+		return createCriteria(criterion).list();
+	}
+
+	/**
+	 * Purpose: 根据Criterion条件创建Criteria,后续可进行更多处理,辅助函数.
+	 * 
+	 * @author Jie Kim
+	 * 
+	 *         Create Time: 2014年5月20日 下午4:33:47
+	 * 
+	 * @param criterions
+	 * @return
+	 * 
+	 *         Version: 1.0
+	 */
+	protected Criteria createCriteria(Criterion... criterions)
+	{
+		Criteria criteria = getSession().createCriteria(getEntityClass());
+		for (Criterion c : criterions)
+		{
+			criteria.add(c);
+		}
+		return criteria;
+	}
+
+	/**
+	 * Purpose: 批量保存对象。<br>
+	 * 每保存一批(hibernate.jdbc.batch_size条)flush并clear一次session，内存占用不随数量增长，
+	 * 同一批的insert语句可以按JDBC批量执行。注意clear会使之前加载到当前session中的对象脱管。
+	 * 主键生成方式为identity(MySQL的native)时，hibernate无法批量执行insert。
+	 * 
+	 *         Create Time: 2026年10月17日 下午4:45:12
+	 * 
+	 * @param entities
+	 * 
+	 *         Version: 1.0
+	 */
+	protected void saveAll(Collection<T> entities)
+	{
+		Session session = getSession();
+		CacheMode cacheMode = session.getCacheMode();
+		// 导入的数据不需要放入二级缓存
+		session.setCacheMode(CacheMode.IGNORE);
+		try
+		{
+			int batchSize = getBatchSize();
+			int count = 0;
+			for (T entity : entities)
+			{
+				session.save(entity);
+				if (++count % batchSize == 0)
+				{
+					session.flush();
+					session.clear();
+				}
+			}
+			session.flush();
+			session.clear();
+		} finally
+		{
+			session.setCacheMode(cacheMode);
+		}
+	}
+
+	/**
+	 * Purpose: 批量更新脱管的对象，与saveAll一样按批flush并clear session。
+	 * 
+	 *         Create Time: 2026年10月17日 下午4:47:36
+	 * 
+	 * @param entities
+	 * 
+	 *         Version: 1.0
+	 */
+	protected void updateAll(Collection<T> entities)
+	{
+		Session session = getSession();
+		CacheMode cacheMode = session.getCacheMode();
+		session.setCacheMode(CacheMode.IGNORE);
+		try
+		{
+			// 先写入并清空session中原有的对象，避免与待更新的对象冲突
+			session.flush();
+			session.clear();
+			int batchSize = getBatchSize();
+			int count = 0;
+			for (T entity : entities)
+			{
+				session.update(entity);
+				if (++count % batchSize == 0)
+				{
+					session.flush();
+					session.clear();
+				}
+			}
+			session.flush();
+			session.clear();
+		} finally
+		{
+			session.setCacheMode(cacheMode);
+		}
+	}
+
+	/**
+	 * Purpose: 使用StatelessSession批量保存对象。<br>
+	 * 没有一级缓存、级联、拦截器和二级缓存，开销最小，适合大批量导入。
+	 * StatelessSession使用当前session的数据库连接，参与当前事务。
+	 * 树节点(HibernateTree的左右值、ClosureTableStrategy的闭包表)依赖拦截器维护，不能使用此方法。<br>
+	 * 写入前预先使查询缓存(包括CountCache)失效，事务结束后再次失效并清除更新对象的二级缓存条目；
+	 * 当前session中已加载的同一对象在写入后refresh。不会级联保存关联对象，
+	 * 其他session中已加载的对象仍然是旧值。
+	 * 
+	 *         Create Time: 2026年10月17日 下午4:52:08
+	 * 
+	 * @param entities
+	 * 
+	 *         Version: 1.0
+	 */
+	protected void saveAllStateless(Collection<T> entities)
+	{
+		writeStateless(entities, true);
+	}
+
+	/**
+	 * Purpose: 使用StatelessSession批量更新对象，每个对象都会更新全部字段。限制同saveAllStateless。
+	 * 
+	 *         Create Time: 2026年10月17日 下午4:53:40
+	 * 
+	 * @param entities
+	 * 
+	 *         Version: 1.0
+	 */
+	protected void updateAllStateless(Collection<T> entities)
+	{
+		writeStateless(entities, false);
+	}
+
+	/**
+	 * Purpose: 通过Updater更新对象。Updater开启diff时只拷贝有变化的字段
+	 * 
+	 * @author Jie Kim
+	 * 
+	 *         Create Time: 2014年5月20日 下午4:33:07
+	 * 
+	 * @param updater
+	 * @return
+	 * 
+	 *         Version: 1.0
+	 */
+	@SuppressWarnings("unchecked")
+	public T updateByUpdater(Updater<T> updater)
+	{
+		ClassMetadata cm = sessionFactory.getClassMetadata(getEntityClass());
+		T bean = updater.getBean();
+		T po = (T) getSession().get(getEntityClass(),
+				cm.getIdentifier(bean, POJO));
+		updaterCopyToPersistentObject(updater, po, cm);
+		return po;
+	}
+
+	/**
+	 * Purpose: 通过Updater直接更新数据库，不加载持久化对象。<br>
+	 * 只更新Updater.isUpdate接受的字段，生成一条update 表 set 字段=? where 主键=?语句，适合频繁的状态、计数等部分更新。
+	 * 集合属性、version和映射为update="false"的属性不更新，也不检查version；不经过拦截器，
+	 * 不能修改树节点的父节点，以及HibernateTree的左右值和PathHibernateTree的路径。<br>
+	 * 对应的二级缓存条目立即清除，并在事务结束时再次清除，查询缓存同bulk update一样失效。
+	 * 对象已在当前session中时，先flush，更新后refresh。
+	 * 
+	 *         Create Time: 2026年10月18日 上午4:10:25
+	 * 
+	 * @param updater
+	 * @return 更新的记录数，没有需要更新的字段时为0
+	 * 
+	 *         Version: 1.0
+	 */
+	public int updateByUpdaterDirect(Updater<T> updater)
+	{
+		return executeDirectUpdate(Collections.singletonList(updater))[0];
+	}
+
+	/**
+	 * Purpose: 通过Updater批量直接更新数据库，规则同updateByUpdaterDirect。<br>
+	 * 按每个Updater实际更新的属性(由UpdateMode、include、exclude和值决定)分组，同一组使用同一条语句，
+	 * 按JDBC批量执行，每批hibernate.jdbc.batch_size条。整个批量只flush一次，
+	 * 查询缓存只失效一次。同一对象出现在不同组中时，不保证组之间的执行顺序。
+	 * 
+	 *         Create Time: 2026年10月18日 上午4:52:30
+	 * 
+	 * @param updaters
+	 * @return 每个Updater更新的记录数，没有需要更新的字段时为0，驱动不返回时为Statement.SUCCESS_NO_INFO
+	 * 
+	 *         Version: 1.0
+	 */
+	public int[] updateAllByUpdater(List<Updater<T>> updaters)
+	{
+		return executeDirectUpdate(updaters);
+	}
+
+	/**
+	 * Purpose: 将更新对象拷贝至实体对象，并处理many-to-one的更新。
+	 * 
+	 * @author Jie Kim
+	 * 
+	 *         Create Time: 2014年5月20日 下午4:33:22
+	 * 
+	 * @param updater
+	 * @param po
+	 * @param cm
+	 * 
+	 *            Version: 1.0
+	 */
+	private void updaterCopyToPersistentObject(Updater<T> updater, T po,
+			ClassMetadata cm)
+	{
+		String[] propNames = cm.getPropertyNames();
+		String identifierName = cm.getIdentifierPropertyName();
+		T bean = updater.getBean();
+		BeanAccessor accessor = BeanAccessors.get(bean.getClass());
+		Set<String> changed = updater.getChangedProperties();
+		changed.clear();
+		Object value;
+		for (String propName : propNames)
+		{
+			if (propName.equals(identifierName))
+			{
+				continue;
+			}
+			try
+			{
+				value = accessor.getValue(bean, propName);
+				if (!updater.isUpdate(propName, value))
+				{
+					continue;
+				}
+				// 值相等时不拷贝，避免无意义的update和缓存失效
+				if (updater.isDiff()
+						&& cm.getPropertyType(propName).isEqual(
+								cm.getPropertyValue(po, propName, POJO), value,
+								POJO))
+				{
+					continue;
+				}
+				cm.setPropertyValue(po, propName, value, POJO);
+				changed.add(propName);
+			} catch (Exception e)
+			{
+				throw new RuntimeException(
+						"copy property to persistent object failed: '"
+								+ propName + "'", e);
+			}
+		}
+	}
+
+	/**
+	 * 按更新的属性分组执行直接更新
+	 */
+	private int[] executeDirectUpdate(List<Updater<T>> updaters)
+	{
+		final SessionImplementor si = (SessionImplementor) getSession();
+		final AbstractEntityPersister persister = (AbstractEntityPersister) si
+				.getFactory().getEntityPersister(getEntityClass().getName());
+		Assert.state(!persister.isMultiTable(),
+				"direct update does not support multi-table entity: "
+						+ persister.getEntityName());
+		final int[] rows = new int[updaters.size()];
+		final Map<BitSet, List<DirectUpdate>> groups = new LinkedHashMap<BitSet, List<DirectUpdate>>();
+		List<Serializable> ids = new ArrayList<Serializable>();
+		List<Object> entities = new ArrayList<Object>();
+		for (int i = 0; i < updaters.size(); i++)
+		{
+			DirectUpdate update = createDirectUpdate(i, updaters.get(i),
+					persister);
+			if (update.properties.isEmpty())
+			{
+				continue;
+			}
+			List<DirectUpdate> group = groups.get(update.properties);
+			if (group == null)
+			{
+				group = new ArrayList<DirectUpdate>();
+				groups.put(update.properties, group);
+			}
+			group.add(update);
+			ids.add(update.id);
+			Object entity = si.getPersistenceContext().getEntity(
+					new EntityKey(update.id, persister, POJO));
+			if (entity != null)
+			{
+				entities.add(entity);
+			}
+		}
+		if (groups.isEmpty())
+		{
+			return rows;
+		}
+		if (!entities.isEmpty())
+		{
+			getSession().flush();
+		}
+		Synchronization cleanup = beforeDirectUpdate(si, persister, ids);
+		Transaction tx = getSession().getTransaction();
+		if (tx.isActive())
+		{
+			tx.registerSynchronization(cleanup);
+		}
+		final int batchSize = getBatchSize();
+		getSession().doWork(new Work()
+		{
+			public void execute(Connection connection) throws SQLException
+			{
+				for (Map.Entry<BitSet, List<DirectUpdate>> entry : groups
+						.entrySet())
+				{
+					List<DirectUpdate> group = entry.getValue();
+					PreparedStatement ps = connection
+							.prepareStatement(getDirectUpdateSql(persister,
+									entry.getKey()));
+					try
+					{
+						if (group.size() == 1)
+						{
+							bindDirectUpdate(ps, si, persister, group.get(0));
+							rows[group.get(0).index] = ps.executeUpdate();
+							continue;
+						}
+						for (int i = 0; i < group.size(); i += batchSize)
+						{
+							List<DirectUpdate> batch = group.subList(i,
+									Math.min(i + batchSize, group.size()));
+							for (DirectUpdate update : batch)
+							{
+								bindDirectUpdate(ps, si, persister, update);
+								ps.addBatch();
+							}
+							int[] counts = ps.executeBatch();
+							for (int j = 0; j < batch.size(); j++)
+							{
+								rows[batch.get(j).index] = counts[j];
+							}
+						}
+					} finally
+					{
+						ps.close();
+					}
+				}
+			}
+		});
+		if (!tx.isActive())
+		{
+			// 没有事务时已经自动提交
+			cleanup.afterCompletion(javax.transaction.Status.STATUS_COMMITTED);
+		}
+		for (Object entity : entities)
+		{
+			getSession().refresh(entity);
+		}
+		return rows;
+	}
+
+	/**
+	 * 取得Updater接受的属性和值，属性按ClassMetadata中的下标记录
+	 */
+	private DirectUpdate createDirectUpdate(int index, Updater<T> updater,
+			AbstractEntityPersister persister)
+	{
+		T bean = updater.getBean();
+		Serializable id = persister.getIdentifier(bean, POJO);
+		Assert.notNull(id, "id of the updater bean is null");
+		BeanAccessor accessor = BeanAccessors.get(bean.getClass());
+		String[] propNames = persister.getPropertyNames();
+		Type[] propTypes = persister.getPropertyTypes();
+		boolean[] updateability = persister.getPropertyUpdateability();
+		Set<String> treeNames = getTreePropertyNames(bean);
+		DirectUpdate update = new DirectUpdate(index, id, propNames.length);
+		for (int i = 0; i < propNames.length; i++)
+		{
+			if (!updateability[i] || propTypes[i].isCollectionType()
+					|| i == persister.getVersionProperty())
+			{
+				continue;
+			}
+			Object value = accessor.getValue(bean, propNames[i]);
+			if (!updater.isUpdate(propNames[i], value))
+			{
+				continue;
+			}
+			Assert.isTrue(!treeNames.contains(propNames[i]),
+					"tree property cannot be updated directly: "
+							+ propNames[i]);
+			update.properties.set(i);
+			update.values[i] = value;
+		}
+		return update;
+	}
+
+	/**
+	 * 由TreeIntercptor维护的属性：树节点的父节点，HibernateTree的左右值，PathHibernateTree的路径
+	 */
+	private static Set<String> getTreePropertyNames(Object bean)
+	{
+		if (!(bean instanceof HibernateTreeNode))
+		{
+			return Collections.emptySet();
+		}
+		Set<String> names = new HashSet<String>();
+		names.add(((HibernateTreeNode<?>) bean).getParentName());
+		if (bean instanceof HibernateTree)
+		{
+			HibernateTree<?> tree = (HibernateTree<?>) bean;
+			names.add(tree.getLftName());
+			names.add(tree.getRgtName());
+		}
+		if (bean instanceof PathHibernateTree)
+		{
+			names.add(((PathHibernateTree<?>) bean).getPathName());
+		}
+		return names;
+	}
+
+	/**
+	 * update 表 set 字段=? where 主键=?
+	 */
+	private static String getDirectUpdateSql(
+			AbstractEntityPersister persister, BitSet properties)
+	{
+		StringBuilder sql = new StringBuilder("update ").append(
+				persister.getTableName()).append(" set ");
+		boolean first = true;
+		for (int i = properties.nextSetBit(0); i >= 0; i = properties
+				.nextSetBit(i + 1))
+		{
+			for (String column : persister.getPropertyColumnNames(i))
+			{
+				sql.append(first ? "" : ", ").append(column).append("=?");
+				first = false;
+			}
+		}
+		String[] idColumns = persister.getIdentifierColumnNames();
+		for (int i = 0; i < idColumns.length; i++)
+		{
+			sql.append(i == 0 ? " where " : " and ").append(idColumns[i])
+					.append("=?");
+		}
+		return sql.toString();
+	}
+
+	private static void bindDirectUpdate(PreparedStatement ps,
+			SessionImplementor si, AbstractEntityPersister persister,
+			DirectUpdate update) throws SQLException
+	{
+		Type[] types = persister.getPropertyTypes();
+		int position = 1;
+		for (int i = update.properties.nextSetBit(0); i >= 0; i = update.properties
+				.nextSetBit(i + 1))
+		{
+			types[i].nullSafeSet(ps, update.values[i], position, si);
+			position += types[i].getColumnSpan(si.getFactory());
+		}
+		persister.getIdentifierType().nullSafeSet(ps, update.id, position, si);
+	}
+
+	/**
+	 * 一个Updater的直接更新：对象ID、更新的属性下标和对应的值
+	 */
+	private static final class DirectUpdate
+	{
+		private final int index;
+		private final Serializable id;
+		private final BitSet properties;
+		private final Object[] values;
+
+		private DirectUpdate(int index, Serializable id, int propertySpan)
+		{
+			this.index = index;
+			this.id = id;
+			this.properties = new BitSet(propertySpan);
+			this.values = new Object[propertySpan];
+		}
+	}
+
+	/**
+	 * 批量写入时每批的数量，取hibernate.jdbc.batch_size
+	 */
+	private int getBatchSize()
+	{
+		int batchSize = ((SessionFactoryImplementor) sessionFactory)
+				.getSettings().getJdbcBatchSize();
+		return batchSize > 0 ? batchSize : DEFAULT_BATCH_SIZE;
+	}
+
+	/**
+	 * 直接更新前清除二级缓存条目并预先使查询缓存失效。返回的Synchronization在事务结束时再清除一次，
+	 * 避免其他事务在提交前把旧数据重新放入缓存
+	 */
+	private Synchronization beforeDirectUpdate(SessionImplementor si,
+			EntityPersister persister, final Collection<Serializable> ids)
+	{
+		final UpdateTimestampsCache timestamps = si.getFactory()
+				.getUpdateTimestampsCache();
+		final Serializable[] spaces = persister.getQuerySpaces();
+		if (timestamps != null)
+		{
+			timestamps.preinvalidate(spaces);
+		}
+		evictAll(ids);
+		return new Synchronization()
+		{
+			public void beforeCompletion()
+			{
+			}
+
+			public void afterCompletion(int status)
+			{
+				evictAll(ids);
+				if (timestamps != null)
+				{
+					timestamps.invalidate(spaces);
+				}
+			}
+		};
+	}
+
+	private void evictAll(Collection<Serializable> ids)
+	{
+		for (Serializable id : ids)
+		{
+			sessionFactory.evict(getEntityClass(), id);
+		}
+	}
+
+	/**
+	 * 在当前session的数据库连接上打开StatelessSession，逐个insert或update。
+	 * 与直接更新一样清除二级缓存并使查询缓存失效，写入后刷新当前session中已加载的对象
+	 */
+	private void writeStateless(final Collection<T> entities,
+			final boolean insert)
+	{
+		assertStatelessSupported();
+		// 先写入当前session中的修改，保证StatelessSession能看到
+		Session session = getSession();
+		session.flush();
+		SessionImplementor si = (SessionImplementor) session;
+		EntityPersister persister = si.getFactory().getEntityPersister(
+				getEntityClass().getName());
+		// 新增的对象不会在二级缓存和当前session中，只需使查询缓存失效
+		List<Serializable> ids = new ArrayList<Serializable>();
+		List<Object> loaded = new ArrayList<Object>();
+		if (!insert)
+		{
+			for (T entity : entities)
+			{
+				Serializable id = persister.getIdentifier(entity, POJO);
+				ids.add(id);
+				Object po = si.getPersistenceContext().getEntity(
+						new EntityKey(id, persister, POJO));
+				if (po != null)
+				{
+					loaded.add(po);
+				}
+			}
+		}
+		Synchronization cleanup = beforeDirectUpdate(si, persister, ids);
+		Transaction tx = session.getTransaction();
+		if (tx.isActive())
+		{
+			tx.registerSynchronization(cleanup);
+		}
+		session.doWork(new Work()
+		{
+			public void execute(Connection connection) throws SQLException
+			{
+				StatelessSession stateless = sessionFactory
+						.openStatelessSession(connection);
+				try
+				{
+					for (T entity : entities)
+					{
+						if (insert)
+						{
+							stateless.insert(entity);
+						} else
+						{
+							stateless.update(entity);
+						}
+					}
+					// close会丢弃还没有执行的JDBC批量，必须先执行
+					((SessionImplementor) stateless).getBatcher()
+							.executeBatch();
+				} finally
+				{
+					stateless.close();
+				}
+			}
+		});
+		if (!tx.isActive())
+		{
+			// 没有事务时已经自动提交
+			cleanup.afterCompletion(javax.transaction.Status.STATUS_COMMITTED);
+		}
+		for (Object po : loaded)
+		{
+			session.refresh(po);
+		}
+	}
+
+	private void assertStatelessSupported()
+	{
+		Assert.state(!HibernateTreeNode.class
+				.isAssignableFrom(getEntityClass()),
+				"tree node cannot be written by StatelessSession: "
+						+ getEntityClass().getName());
+	}
+
+	/**
+	 * Purpose: 获得Dao对于的实体类
+	 * 
+	 * @author Jie Kim
+	 * 
+	 *         Create Time: 2014年5月20日 下午4:34:00
+	 * 
+	 * @return
+	 * 
+	 *         Version: 1.0
+	 */
+	abstract protected Class<T> getEntityClass();
+}
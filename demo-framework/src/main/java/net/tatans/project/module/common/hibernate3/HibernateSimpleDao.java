@@ -1,304 +1,907 @@
-package net.tatans.project.module.common.hibernate3;
-
-import java.util.ArrayList;
-import java.util.List;
-
-import net.tatans.project.module.common.page.Pagination;
-import net.tatans.project.module.common.util.MyBeanUtils;
-
-import org.hibernate.Criteria;
-import org.hibernate.Query;
-import org.hibernate.Session;
-import org.hibernate.SessionFactory;
-import org.hibernate.criterion.CriteriaSpecification;
-import org.hibernate.criterion.Projection;
-import org.hibernate.criterion.Projections;
-import org.hibernate.impl.CriteriaImpl;
-import org.hibernate.transform.ResultTransformer;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.util.Assert;
-
-/**
- * Project Name:demo-framework
- * 
- * Package:net.tatans.demo.common.hibernate3
- * 
- * FileName:HibernateSimpleDao.java
- * 
- * @author Jie Kim
- * 
- *         Purpose: hibernate DAO基类<br>
- *         提供hql分页查询，不带泛型，与具体实体类无关。
- * 
- *         Create Time: 2014年5月20日 下午3:25:57
- * 
- *         Create Specification:
- * 
- *         Modified Time:
- * 
- *         Modified by:
- * 
- *         Modified Specification:
- * 
- *         Version: 1.0
- */
-public abstract class HibernateSimpleDao
-{
-	/**
-	 * 日志，可用于子类
-	 */
-	protected Logger log = LoggerFactory.getLogger(getClass());
-	/**
-	 * hibernate 的 order 属性
-	 */
-	protected static final String ORDER_ENTRIES = "orderEntries";
-
-	/**
-	 * Purpose: 通过HQL查询对象列表
-	 * 
-	 * @author Jie Kim
-	 * 
-	 *         Create Time: 2014年5月20日 下午3:24:25
-	 * 
-	 * @param hql
-	 *            hql语句
-	 * @param values
-	 *            数量可变的参数
-	 * @return
-	 * 
-	 *         Version: 1.0
-	 */
-	@SuppressWarnings({ "rawtypes" })
-	protected List find(String hql, Object... values)
-	{
-		return createQuery(hql, values).list();
-	}
-
-	/**
-	 * Purpose: 通过HQL查询唯一对象
-	 * 
-	 * @author Jie Kim
-	 * 
-	 *         Create Time: 2014年5月20日 下午3:24:58
-	 * 
-	 * @param hql
-	 * @param values
-	 * @return
-	 * 
-	 *         Version: 1.0
-	 */
-	protected Object findUnique(String hql, Object... values)
-	{
-		return createQuery(hql, values).uniqueResult();
-	}
-
-	/**
-	 * Purpose: 通过Finder获得分页数据
-	 * 
-	 * @author Jie Kim
-	 * 
-	 *         Create Time: 2014年5月20日 下午3:25:20
-	 * 
-	 * @param finder
-	 *            Finder对象。finder里可求出Pagination需要的totalCount和list结果集合,
-	 *            firstResult和maxResults以及hql语句和它的参数
-	 * @param pageNo
-	 *            页码
-	 * @param pageSize
-	 *            每页条数
-	 * @return Pagination 分页对象
-	 * 
-	 *         Version: 1.0
-	 */
-	@SuppressWarnings("rawtypes")
-	protected Pagination find(Finder finder, int pageNo, int pageSize)
-	{
-		int totalCount = countQueryResult(finder);
-		Pagination p = new Pagination(pageNo, pageSize, totalCount);
-		if (totalCount < 1)
-		{
-			p.setList(new ArrayList());
-			return p;
-		}
-		Query query = getSession().createQuery(finder.getOrigHql());
-		finder.setParamsToQuery(query);
-		query.setFirstResult(p.getFirstResult());
-		query.setMaxResults(p.getPageSize());
-		if (finder.isCacheable())
-		{
-			query.setCacheable(true);
-		}
-		List list = query.list();
-		p.setList(list);
-		return p;
-	}
-
-	/**
-	 * Purpose: 通过Finder获得列表数据
-	 * 
-	 * @author Jie Kim
-	 * 
-	 *         Create Time: 2014年5月20日 下午3:23:55
-	 * 
-	 * @param finder
-	 * @return
-	 * 
-	 *         Version: 1.0
-	 */
-	@SuppressWarnings("rawtypes")
-	protected List find(Finder finder)
-	{
-		Query query = finder.createQuery(getSession());
-		List list = query.list();
-		return list;
-	}
-
-	/**
-	 * Purpose: 通过Criteria获得分页数据
-	 * 
-	 * @author Jie Kim
-	 * 
-	 *         Create Time: 2014年5月20日 下午3:14:11
-	 * 
-	 * @param crit
-	 *            条件查询对象Criteria
-	 * @param pageNo
-	 *            当前页数
-	 * @param pageSize
-	 *            每页记录数
-	 * @return Pagination 分页对象
-	 * 
-	 *         Version: 1.0
-	 */
-	@SuppressWarnings({ "rawtypes", "unchecked" })
-	protected Pagination findByCriteria(Criteria crit, int pageNo, int pageSize)
-	{
-		CriteriaImpl impl = (CriteriaImpl) crit;
-		// 先把Projection、ResultTransformer、OrderBy取出来,清空三者后再执行Count操作
-		Projection projection = impl.getProjection();
-		ResultTransformer transformer = impl.getResultTransformer();
-		List<CriteriaImpl.OrderEntry> orderEntries;
-		try
-		{
-			orderEntries = (List) MyBeanUtils
-					.getFieldValue(impl, ORDER_ENTRIES);
-			MyBeanUtils.setFieldValue(impl, ORDER_ENTRIES, new ArrayList());
-		} catch (Exception e)
-		{
-			throw new RuntimeException(
-					"cannot read/write 'orderEntries' from CriteriaImpl", e);
-		}
-
-		int totalCount = ((Number) crit.setProjection(Projections.rowCount())
-				.uniqueResult()).intValue();
-		Pagination p = new Pagination(pageNo, pageSize, totalCount);
-		if (totalCount < 1)
-		{
-			p.setList(new ArrayList());
-			return p;
-		}
-
-		// 将之前的Projection,ResultTransformer和OrderBy条件重新设回去
-		crit.setProjection(projection);// 此处projection会覆盖上面的Projections.rowCount()
-		if (projection == null)
-		{
-
-			/**
-			 * 设置下criteria的查询结果，ROOT_ENTITY表示仅仅返回根节点的实例
-			 * 如果不设置setProjection()的话，crit.list将返回的是行数(int型)，
-			 * 当projection不为null则返回的应该是投影组成的数组对象的集合，
-			 * 当projection为null则我们希望返回的应该是实体类型集合
-			 * 但是setProjection()会改变Criteria的结果类型，
-			 * Criteria的ResultTransformer会变成PassThroughResultTransformer
-			 * (不再是以ROOT_ENTITY实体类型返回而是以PROJECTIONObject[]的形式返回)，
-			 * criteria.list的时候可能结果会跟理想的不一样。所以我们还要再
-			 * crit.setResultTransformer(Criteria
-			 * .ROOT_ENTITY);把结果以Entity的形式返回，而不是Object[]的形式返回。
-			 */
-			crit.setResultTransformer(CriteriaSpecification.ROOT_ENTITY);
-		}
-		if (transformer != null)
-		{
-			crit.setResultTransformer(transformer);
-		}
-		try
-		{
-			MyBeanUtils.setFieldValue(impl, ORDER_ENTRIES, orderEntries);
-		} catch (Exception e)
-		{
-			throw new RuntimeException(
-					"set 'orderEntries' to CriteriaImpl faild", e);
-		}
-		crit.setFirstResult(p.getFirstResult());
-		crit.setMaxResults(p.getPageSize());
-		p.setList(crit.list());
-		return p;
-	}
-
-	/**
-	 * Purpose:根据查询函数与参数列表创建Query对象,后续可进行更多处理,辅助函数.
-	 * 
-	 * @author Jie Kim
-	 * 
-	 *         Create Time: 2014年5月20日 下午2:00:24
-	 * 
-	 * @param queryString
-	 *            查询函数
-	 * @param values
-	 *            查询参数列表
-	 * @return
-	 * 
-	 *         Version: 1.0
-	 */
-	protected Query createQuery(String queryString, Object... values)
-	{
-		Assert.hasText(queryString);
-		Query queryObject = getSession().createQuery(queryString);
-		if (values != null)
-		{
-			for (int i = 0; i < values.length; i++)
-			{
-				queryObject.setParameter(i, values[i]);
-			}
-		}
-		return queryObject;
-	}
-
-	/**
-	 * Purpose: 获得Finder的记录总数
-	 * 
-	 * @author Jie Kim
-	 * 
-	 *         Create Time: 2014年5月20日 下午3:22:40
-	 * 
-	 * @param finder
-	 * @return
-	 * 
-	 *         Version: 1.0
-	 */
-	protected int countQueryResult(Finder finder)
-	{
-		Query query = getSession().createQuery(finder.getRowCountHql());
-		finder.setParamsToQuery(query);
-		if (finder.isCacheable())
-		{
-			query.setCacheable(true);
-		}
-		return ((Number) query.iterate().next()).intValue();
-	}
-
-	protected SessionFactory sessionFactory;
-
-	@Autowired
-	public void setSessionFactory(SessionFactory sessionFactory)
-	{
-		this.sessionFactory = sessionFactory;
-	}
-
-	protected Session getSession()
-	{
-		return sessionFactory.getCurrentSession();
-	}
-}
+package net.tatans.project.module.common.hibernate3;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import net.tatans.project.module.common.hibernate3.CountCache.CountKey;
+import net.tatans.project.module.common.page.KeysetPage;
+import net.tatans.project.module.common.page.Pagination;
+import net.tatans.project.module.common.page.Slice;
+import net.tatans.project.module.common.util.BeanAccessors;
+
+import org.hibernate.CacheMode;
+import org.hibernate.Criteria;
+import org.hibernate.FlushMode;
+import org.hibernate.Hibernate;
+import org.hibernate.Query;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.SessionImplementor;
+import org.hibernate.impl.CriteriaImpl;
+import org.hibernate.jdbc.Work;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.util.Assert;
+
+/**
+ * Project Name:demo-framework
+ * 
+ * Package:net.tatans.demo.common.hibernate3
+ * 
+ * FileName:HibernateSimpleDao.java
+ * 
+ * @author Jie Kim
+ * 
+ *         Purpose: hibernate DAO基类<br>
+ *         提供hql分页查询，不带泛型，与具体实体类无关。
+ * 
+ *         Create Time: 2014年5月20日 下午3:25:57
+ * 
+ *         Create Specification:
+ * 
+ *         Modified Time:
+ * 
+ *         Modified by:
+ * 
+ *         Modified Specification:
+ * 
+ *         Version: 1.0
+ */
+public abstract class HibernateSimpleDao
+{
+	/**
+	 * 日志，可用于子类
+	 */
+	protected Logger log = LoggerFactory.getLogger(getClass());
+	/**
+	 * hibernate 的 order 属性
+	 * 
+	 * @deprecated count查询改由CountCriteria生成，不再通过反射读取CriteriaImpl的排序，保留供子类兼容
+	 */
+	@Deprecated
+	protected static final String ORDER_ENTRIES = "orderEntries";
+
+	/**
+	 * Purpose: 通过HQL查询对象列表
+	 * 
+	 * @author Jie Kim
+	 * 
+	 *         Create Time: 2014年5月20日 下午3:24:25
+	 * 
+	 * @param hql
+	 *            hql语句
+	 * @param values
+	 *            数量可变的参数
+	 * @return
+	 * 
+	 *         Version: 1.0
+	 */
+	@SuppressWarnings({ "rawtypes" })
+	protected List find(String hql, Object... values)
+	{
+		return createQuery(hql, values).list();
+	}
+
+	/**
+	 * Purpose: 通过HQL查询唯一对象
+	 * 
+	 * @author Jie Kim
+	 * 
+	 *         Create Time: 2014年5月20日 下午3:24:58
+	 * 
+	 * @param hql
+	 * @param values
+	 * @return
+	 * 
+	 *         Version: 1.0
+	 */
+	protected Object findUnique(String hql, Object... values)
+	{
+		return createQuery(hql, values).uniqueResult();
+	}
+
+	/**
+	 * Purpose: 通过Finder获得分页数据。Finder允许估算总记录数时，估算值达到阈值则不执行count语句，
+	 * 返回的Pagination.isApproximate()为true，见Finder.setApproximateCount(int)
+	 * 
+	 * @author Jie Kim
+	 * 
+	 *         Create Time: 2014年5月20日 下午3:25:20
+	 * 
+	 * @param finder
+	 *            Finder对象。finder里可求出Pagination需要的totalCount和list结果集合,
+	 *            firstResult和maxResults以及hql语句和它的参数
+	 * @param pageNo
+	 *            页码
+	 * @param pageSize
+	 *            每页条数
+	 * @return Pagination 分页对象
+	 * 
+	 *         Version: 1.0
+	 */
+	@SuppressWarnings("rawtypes")
+	protected Pagination find(Finder finder, int pageNo, int pageSize)
+	{
+		Integer estimate = estimateQueryResult(finder);
+		if (estimate != null)
+		{
+			return findApproximate(finder, pageNo, pageSize, estimate);
+		}
+		int totalCount = countQueryResult(finder);
+		Pagination p = new Pagination(pageNo, pageSize, totalCount);
+		if (totalCount < 1)
+		{
+			p.setList(new ArrayList());
+			return p;
+		}
+		List list = listQueryResult(finder, getSession(), p.getFirstResult(),
+				p.getPageSize());
+		p.setList(list);
+		return p;
+	}
+
+	/**
+	 * Purpose: 通过Finder获得分页数据，可选择并发执行count查询和列表查询。<br>
+	 * 并发时count查询交给PagingExecutor在独立的session(FlushMode.MANUAL)中执行，列表查询同时在当前session中执行，
+	 * 返回的实体与find(Finder,int,int)一样属于当前session，可以正常延迟加载。
+	 * 独立session看不到当前事务中尚未提交的修改。
+	 * 当前页不满一页时，总记录数可以直接得出，不再等待count查询。
+	 * 没有配置PagingExecutor、count已缓存或连接配额已用完时，退回到顺序执行。
+	 * 
+	 *         Create Time: 2026年10月17日 下午2:40:18
+	 * 
+	 * @param finder
+	 * @param pageNo
+	 *            页码
+	 * @param pageSize
+	 *            每页条数
+	 * @param concurrent
+	 *            是否并发执行count查询和列表查询
+	 * @return Pagination 分页对象
+	 * 
+	 *         Version: 1.0
+	 */
+	@SuppressWarnings("rawtypes")
+	protected Pagination find(final Finder finder, int pageNo, int pageSize,
+			boolean concurrent)
+	{
+		if (!concurrent || pagingExecutor == null || finder.isApproximateCount()
+				|| (countCache != null && countCache.get(countCache.createKey(
+						finder.getRowCountHql(), finder)) != null))
+		{
+			return find(finder, pageNo, pageSize);
+		}
+		Future<Integer> countFuture = pagingExecutor
+				.trySubmit(new Callable<Integer>()
+				{
+					public Integer call()
+					{
+						Session session = openManualFlushSession();
+						try
+						{
+							return countQueryResult(finder, session);
+						} finally
+						{
+							session.close();
+						}
+					}
+				});
+		if (countFuture == null)
+		{
+			return find(finder, pageNo, pageSize);
+		}
+		Slice range = new Slice(pageNo, pageSize);
+		List list;
+		try
+		{
+			list = listQueryResult(finder, getSession(),
+					range.getFirstResult(), range.getPageSize());
+		} catch (RuntimeException e)
+		{
+			countFuture.cancel(true);
+			throw e;
+		}
+		int totalCount = awaitCount(countFuture, range, list);
+		Pagination p = new Pagination(pageNo, pageSize, totalCount);
+		if (totalCount < 1)
+		{
+			p.setList(new ArrayList());
+			return p;
+		}
+		if (p.getFirstResult() != range.getFirstResult())
+		{
+			// 页码超出了最大页数，已被调整为最后一页，重新查询
+			list = listQueryResult(finder, getSession(), p.getFirstResult(),
+					p.getPageSize());
+		}
+		p.setList(list);
+		return p;
+	}
+
+	/**
+	 * Purpose: 通过Finder获得keyset(seek)分页数据。不查询总记录数，也不使用offset，
+	 * 而是用上一页最后一条数据的排序键作为条件定位，深度翻页的代价与第一页相同。
+	 * 
+	 *         Create Time: 2026年10月17日 上午10:24:10
+	 * 
+	 * @param finder
+	 *            Finder对象。须通过addSeekKey声明有序且唯一的排序键，hql中不能包含order by
+	 * @param lastKey
+	 *            上一页的KeysetPage.getNextKey()，为null时查询第一页
+	 * @param pageSize
+	 *            每页条数
+	 * @return KeysetPage 分页对象
+	 * 
+	 *         Version: 1.0
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	protected KeysetPage findByKeyset(Finder finder, Object[] lastKey,
+			int pageSize)
+	{
+		List<String> seekKeys = finder.getSeekKeys();
+		Assert.notEmpty(seekKeys, "finder has no seek key");
+		boolean seek = lastKey != null;
+		if (seek)
+		{
+			Assert.isTrue(lastKey.length == seekKeys.size(),
+					"last key length not match seek keys");
+		}
+		KeysetPage p = new KeysetPage(pageSize, !seek);
+		Query query = getSession().createQuery(finder.getSeekHql(seek));
+		finder.setParamsToQuery(query);
+		if (seek)
+		{
+			for (int i = 0; i < lastKey.length; i++)
+			{
+				Assert.notNull(lastKey[i], "seek key '" + seekKeys.get(i)
+						+ "' is null, seek keys must be not-null");
+				query.setParameter(Finder.SEEK_PARAM + i, lastKey[i]);
+			}
+		}
+		// 多取一条，用于判断是否还有下一页
+		query.setMaxResults(p.getPageSize() + 1);
+		if (finder.isCacheable())
+		{
+			query.setCacheable(true);
+		}
+		List list = query.list();
+		if (list.size() > p.getPageSize())
+		{
+			list = new ArrayList(list.subList(0, p.getPageSize()));
+			p.setNextKey(getSeekKey(seekKeys, list.get(list.size() - 1)));
+		}
+		p.setList(list);
+		return p;
+	}
+
+	/**
+	 * Purpose: 通过Finder获得不含总记录数的分页数据。多查询一条数据来判断是否还有下一页，不执行count语句。
+	 * 
+	 *         Create Time: 2026年10月17日 下午1:40:06
+	 * 
+	 * @param finder
+	 * @param pageNo
+	 *            页码
+	 * @param pageSize
+	 *            每页条数
+	 * @return Slice 分页对象
+	 * 
+	 *         Version: 1.0
+	 */
+	protected Slice findSlice(Finder finder, int pageNo, int pageSize)
+	{
+		Slice slice = new Slice(pageNo, pageSize);
+		Query query = getSession().createQuery(finder.getOrigHql());
+		finder.setParamsToQuery(query);
+		query.setFirstResult(slice.getFirstResult());
+		// 多取一条，用于判断是否还有下一页
+		query.setMaxResults(slice.getPageSize() + 1);
+		if (finder.isCacheable())
+		{
+			query.setCacheable(true);
+		}
+		setSliceList(slice, query.list());
+		return slice;
+	}
+
+	/**
+	 * Purpose: 通过Finder获得列表数据
+	 * 
+	 * @author Jie Kim
+	 * 
+	 *         Create Time: 2014年5月20日 下午3:23:55
+	 * 
+	 * @param finder
+	 * @return
+	 * 
+	 *         Version: 1.0
+	 */
+	@SuppressWarnings("rawtypes")
+	protected List find(Finder finder)
+	{
+		Query query = finder.createQuery(getSession());
+		List list = query.list();
+		return list;
+	}
+
+	/**
+	 * Purpose: 流式读取Finder的查询结果，适用于批处理等结果集很大的场景。<br>
+	 * 使用只进游标逐行读取，每读取fetchSize行flush并clear一次当前session，
+	 * 内存占用与结果集大小无关。注意clear会使之前加载到当前session中的实体脱管。<br>
+	 * MySQL驱动需要在连接串中设置useCursorFetch=true才会按fetchSize分批读取，否则会一次读取整个结果集；
+	 * 该参数会使连接上的所有语句都使用服务端预处理，默认没有开启，需要时单独为批处理配置数据源。
+	 * 
+	 *         Create Time: 2026年10月17日 下午3:24:31
+	 * 
+	 * @param finder
+	 * @param fetchSize
+	 *            每次从数据库读取的行数，同时也是清理session的间隔
+	 * @param callback
+	 *            逐行回调，返回false时结束读取
+	 * @return 处理的行数
+	 * 
+	 *         Version: 1.0
+	 */
+	protected int stream(Finder finder, int fetchSize, ScrollCallback callback)
+	{
+		Assert.isTrue(fetchSize > 0, "fetchSize must be positive");
+		Session session = getSession();
+		Query query = finder.createQuery(session);
+		// 流式读取的数据不需要放入二级缓存，也不需要脏检查
+		query.setCacheable(false);
+		query.setCacheMode(CacheMode.IGNORE);
+		query.setReadOnly(true);
+		query.setFetchSize(fetchSize);
+		ScrollableResults results = query.scroll(ScrollMode.FORWARD_ONLY);
+		int count = 0;
+		try
+		{
+			while (results.next())
+			{
+				count++;
+				boolean next = callback.process(getRow(results));
+				if (count % fetchSize == 0)
+				{
+					session.flush();
+					session.clear();
+				}
+				if (!next)
+				{
+					break;
+				}
+			}
+		} finally
+		{
+			results.close();
+		}
+		return count;
+	}
+
+	/**
+	 * Purpose: 使用StatelessSession流式读取Finder的查询结果。<br>
+	 * 与stream相比没有一级缓存和脏检查，开销更小，也不会影响当前session；
+	 * 但读取的实体始终是脱管的，不能延迟加载关联对象。
+	 * StatelessSession使用当前session的数据库连接，参与当前事务。
+	 * 
+	 *         Create Time: 2026年10月17日 下午3:31:08
+	 * 
+	 * @param finder
+	 * @param fetchSize
+	 *            每次从数据库读取的行数
+	 * @param callback
+	 *            逐行回调，返回false时结束读取
+	 * @return 处理的行数
+	 * 
+	 *         Version: 1.0
+	 */
+	protected int streamStateless(final Finder finder, final int fetchSize,
+			final ScrollCallback callback)
+	{
+		Assert.isTrue(fetchSize > 0, "fetchSize must be positive");
+		final int[] count = new int[1];
+		getSession().doWork(new Work()
+		{
+			public void execute(Connection connection) throws SQLException
+			{
+				StatelessSession session = sessionFactory
+						.openStatelessSession(connection);
+				try
+				{
+					count[0] = streamStateless(session, finder, fetchSize,
+							callback);
+				} finally
+				{
+					session.close();
+				}
+			}
+		});
+		return count[0];
+	}
+
+	private int streamStateless(StatelessSession session, Finder finder,
+			int fetchSize, ScrollCallback callback)
+	{
+		Query query = session.createQuery(finder.getOrigHql());
+		finder.setParamsToQuery(query);
+		if (finder.getFirstResult() > 0)
+		{
+			query.setFirstResult(finder.getFirstResult());
+		}
+		if (finder.getMaxResults() > 0)
+		{
+			query.setMaxResults(finder.getMaxResults());
+		}
+		query.setFetchSize(fetchSize);
+		ScrollableResults results = query.scroll(ScrollMode.FORWARD_ONLY);
+		int count = 0;
+		try
+		{
+			while (results.next())
+			{
+				count++;
+				if (!callback.process(getRow(results)))
+				{
+					break;
+				}
+			}
+		} finally
+		{
+			results.close();
+		}
+		return count;
+	}
+
+	/**
+	 * Purpose: 通过Criteria获得分页数据
+	 * 
+	 * @author Jie Kim
+	 * 
+	 *         Create Time: 2014年5月20日 下午3:14:11
+	 * 
+	 * @param crit
+	 *            条件查询对象Criteria
+	 * @param pageNo
+	 *            当前页数
+	 * @param pageSize
+	 *            每页记录数
+	 * @return Pagination 分页对象
+	 * 
+	 *         Version: 1.0
+	 */
+	@SuppressWarnings("rawtypes")
+	protected Pagination findByCriteria(Criteria crit, int pageNo, int pageSize)
+	{
+		// count查询使用由crit生成的新Criteria，不修改crit的Projection、ResultTransformer和OrderBy
+		int totalCount = ((Number) CountCriteria.create((CriteriaImpl) crit)
+				.uniqueResult()).intValue();
+		Pagination p = new Pagination(pageNo, pageSize, totalCount);
+		if (totalCount < 1)
+		{
+			p.setList(new ArrayList());
+			return p;
+		}
+		crit.setFirstResult(p.getFirstResult());
+		crit.setMaxResults(p.getPageSize());
+		p.setList(crit.list());
+		return p;
+	}
+
+	/**
+	 * Purpose: 通过Criteria获得分页数据，可选择并发执行count查询和列表查询。<br>
+	 * 并发时count查询使用crit的副本，在PagingExecutor的独立session(FlushMode.MANUAL)中执行，
+	 * 列表查询同时在当前session中执行。其余规则与find(Finder,int,int,boolean)相同。
+	 * 
+	 *         Create Time: 2026年10月17日 下午3:05:12
+	 * 
+	 * @param crit
+	 *            条件查询对象Criteria
+	 * @param pageNo
+	 *            当前页数
+	 * @param pageSize
+	 *            每页记录数
+	 * @param concurrent
+	 *            是否并发执行count查询和列表查询
+	 * @return Pagination 分页对象
+	 * 
+	 *         Version: 1.0
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	protected Pagination findByCriteria(Criteria crit, int pageNo,
+			int pageSize, boolean concurrent)
+	{
+		if (!concurrent || pagingExecutor == null)
+		{
+			return findByCriteria(crit, pageNo, pageSize);
+		}
+		// count查询在调用线程中生成，之后绑定到新的session
+		final CriteriaImpl countCrit = CountCriteria
+				.create((CriteriaImpl) crit);
+		Future<Integer> countFuture = pagingExecutor
+				.trySubmit(new Callable<Integer>()
+				{
+					public Integer call()
+					{
+						Session session = openManualFlushSession();
+						try
+						{
+							countCrit.setSession((SessionImplementor) session);
+							return ((Number) countCrit.uniqueResult())
+									.intValue();
+						} finally
+						{
+							session.close();
+						}
+					}
+				});
+		if (countFuture == null)
+		{
+			return findByCriteria(crit, pageNo, pageSize);
+		}
+		Slice range = new Slice(pageNo, pageSize);
+		List list;
+		try
+		{
+			crit.setFirstResult(range.getFirstResult());
+			crit.setMaxResults(range.getPageSize());
+			list = crit.list();
+		} catch (RuntimeException e)
+		{
+			countFuture.cancel(true);
+			throw e;
+		}
+		int totalCount = awaitCount(countFuture, range, list);
+		Pagination p = new Pagination(pageNo, pageSize, totalCount);
+		if (totalCount < 1)
+		{
+			p.setList(new ArrayList());
+			return p;
+		}
+		if (p.getFirstResult() != range.getFirstResult())
+		{
+			// 页码超出了最大页数，已被调整为最后一页，重新查询
+			crit.setFirstResult(p.getFirstResult());
+			list = crit.list();
+		}
+		p.setList(list);
+		return p;
+	}
+
+	/**
+	 * Purpose: 通过Criteria获得不含总记录数的分页数据。多查询一条数据来判断是否还有下一页，不执行count查询。
+	 * 
+	 *         Create Time: 2026年10月17日 下午1:42:30
+	 * 
+	 * @param crit
+	 *            条件查询对象Criteria
+	 * @param pageNo
+	 *            当前页数
+	 * @param pageSize
+	 *            每页记录数
+	 * @return Slice 分页对象
+	 * 
+	 *         Version: 1.0
+	 */
+	protected Slice findSliceByCriteria(Criteria crit, int pageNo, int pageSize)
+	{
+		Slice slice = new Slice(pageNo, pageSize);
+		crit.setFirstResult(slice.getFirstResult());
+		crit.setMaxResults(slice.getPageSize() + 1);
+		setSliceList(slice, crit.list());
+		return slice;
+	}
+
+	/**
+	 * Purpose:根据查询函数与参数列表创建Query对象,后续可进行更多处理,辅助函数.
+	 * 
+	 * @author Jie Kim
+	 * 
+	 *         Create Time: 2014年5月20日 下午2:00:24
+	 * 
+	 * @param queryString
+	 *            查询函数
+	 * @param values
+	 *            查询参数列表
+	 * @return
+	 * 
+	 *         Version: 1.0
+	 */
+	protected Query createQuery(String queryString, Object... values)
+	{
+		Assert.hasText(queryString);
+		Query queryObject = getSession().createQuery(queryString);
+		if (values != null)
+		{
+			for (int i = 0; i < values.length; i++)
+			{
+				queryObject.setParameter(i, values[i]);
+			}
+		}
+		return queryObject;
+	}
+
+	/**
+	 * Purpose: 获得Finder的记录总数
+	 * 
+	 * @author Jie Kim
+	 * 
+	 *         Create Time: 2014年5月20日 下午3:22:40
+	 * 
+	 * @param finder
+	 * @return
+	 * 
+	 *         Version: 1.0
+	 */
+	protected int countQueryResult(Finder finder)
+	{
+		return countQueryResult(finder, getSession());
+	}
+
+	private int countQueryResult(Finder finder, Session session)
+	{
+		String rowCountHql = finder.getRowCountHql();
+		CountKey key = null;
+		long timestamp = 0;
+		if (countCache != null)
+		{
+			// 同样的count语句和参数，翻页时只查询一次
+			key = countCache.createKey(rowCountHql, finder);
+			Integer count = countCache.get(key);
+			if (count != null)
+			{
+				return count;
+			}
+			timestamp = countCache.nextTimestamp();
+		}
+		Query query = session.createQuery(rowCountHql);
+		finder.setParamsToQuery(query);
+		if (finder.isCacheable())
+		{
+			query.setCacheable(true);
+		}
+		int count = ((Number) query.iterate().next()).intValue();
+		if (countCache != null)
+		{
+			countCache.put(key, count, timestamp);
+		}
+		return count;
+	}
+
+	/**
+	 * 估算Finder的总记录数，估算值小于Finder设置的阈值时返回null
+	 */
+	private Integer estimateQueryResult(Finder finder)
+	{
+		if (!finder.isApproximateCount())
+		{
+			return null;
+		}
+		Long estimate = CountEstimator.estimate(finder, getSession());
+		if (estimate == null || estimate < finder.getApproximateThreshold())
+		{
+			return null;
+		}
+		return (int) Math.min(estimate, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Purpose: 使用估算的总记录数分页。当前页不满一页时，由列表得出精确的总记录数。
+	 * 
+	 *         Create Time: 2026年10月17日 下午4:20:51
+	 * 
+	 * @param finder
+	 * @param pageNo
+	 * @param pageSize
+	 * @param estimate
+	 *            估算的总记录数
+	 * @return
+	 * 
+	 *         Version: 1.0
+	 */
+	@SuppressWarnings("rawtypes")
+	private Pagination findApproximate(Finder finder, int pageNo,
+			int pageSize, int estimate)
+	{
+		Pagination p = new Pagination(pageNo, pageSize, estimate);
+		List list = listQueryResult(finder, getSession(), p.getFirstResult(),
+				p.getPageSize());
+		if (!list.isEmpty() && list.size() < p.getPageSize())
+		{
+			p.setTotalCount(p.getFirstResult() + list.size());
+		} else
+		{
+			p.setApproximate(true);
+		}
+		p.setList(list);
+		return p;
+	}
+
+	/**
+	 * 查询Finder的一页数据
+	 */
+	@SuppressWarnings("rawtypes")
+	private List listQueryResult(Finder finder, Session session,
+			int firstResult, int maxResults)
+	{
+		Query query = session.createQuery(finder.getOrigHql());
+		finder.setParamsToQuery(query);
+		query.setFirstResult(firstResult);
+		query.setMaxResults(maxResults);
+		if (finder.isCacheable())
+		{
+			query.setCacheable(true);
+		}
+		return query.list();
+	}
+
+	/**
+	 * Purpose: 获得并发执行的count查询结果。当前页不满一页时直接由列表得出总记录数，取消count查询。
+	 * 
+	 *         Create Time: 2026年10月17日 下午2:52:44
+	 * 
+	 * @param countFuture
+	 * @param range
+	 *            列表查询的范围
+	 * @param list
+	 *            列表查询结果
+	 * @return
+	 * 
+	 *         Version: 1.0
+	 */
+	@SuppressWarnings("rawtypes")
+	private int awaitCount(Future<Integer> countFuture, Slice range, List list)
+	{
+		if (list.size() < range.getPageSize()
+				&& (list.size() > 0 || range.getFirstResult() == 0))
+		{
+			countFuture.cancel(true);
+			return range.getFirstResult() + list.size();
+		}
+		try
+		{
+			return countFuture.get();
+		} catch (InterruptedException e)
+		{
+			countFuture.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("interrupted while waiting for count",
+					e);
+		} catch (ExecutionException e)
+		{
+			if (e.getCause() instanceof RuntimeException)
+			{
+				throw (RuntimeException) e.getCause();
+			}
+			throw new RuntimeException("count query failed", e.getCause());
+		}
+	}
+
+	/**
+	 * 打开用于并发count查询的session，FlushMode.MANUAL，不会写入数据库；不参与当前事务，需要调用方关闭
+	 */
+	private Session openManualFlushSession()
+	{
+		Session session = sessionFactory.openSession();
+		session.setFlushMode(FlushMode.MANUAL);
+		return session;
+	}
+
+	/**
+	 * 游标当前行，只有一列时返回该列的值
+	 */
+	private Object getRow(ScrollableResults results)
+	{
+		Object[] row = results.get();
+		return row.length == 1 ? row[0] : row;
+	}
+
+	/**
+	 * 设置Slice的分页内容，去掉用于判断下一页而多查询的一条数据
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private void setSliceList(Slice slice, List list)
+	{
+		boolean hasNext = list.size() > slice.getPageSize();
+		if (hasNext)
+		{
+			list = new ArrayList(list.subList(0, slice.getPageSize()));
+		}
+		slice.setList(list, hasNext);
+	}
+
+	/**
+	 * Purpose: 从数据中读取keyset分页的排序键值
+	 * 
+	 *         Create Time: 2026年10月17日 上午10:31:52
+	 * 
+	 * @param seekKeys
+	 *            带实体别名的排序键，如bean.id、bean.website.id
+	 * @param row
+	 *            查询结果。如为Object[]，则从第一列的实体中读取，第一列不是实体时抛出异常
+	 * @return 排序键值，不能为null
+	 * 
+	 *         Version: 1.0
+	 */
+	private Object[] getSeekKey(List<String> seekKeys, Object row)
+	{
+		Object bean = row instanceof Object[] ? ((Object[]) row)[0] : row;
+		if (bean == null
+				|| sessionFactory.getClassMetadata(Hibernate.getClass(bean)) == null)
+		{
+			throw new IllegalStateException(
+					"keyset pagination needs an entity in the first column, but got "
+							+ (bean == null ? "null" : bean.getClass()
+									.getName()));
+		}
+		Object[] key = new Object[seekKeys.size()];
+		for (int i = 0; i < key.length; i++)
+		{
+			String seekKey = seekKeys.get(i);
+			// 去掉实体别名，逐级读取属性
+			String[] props = seekKey.substring(seekKey.indexOf('.') + 1)
+					.split("\\.");
+			Object value = bean;
+			try
+			{
+				for (int j = 0; j < props.length && value != null; j++)
+				{
+					value = BeanAccessors.getValue(value, props[j]);
+				}
+			} catch (Exception e)
+			{
+				throw new RuntimeException("cannot read seek key '" + seekKey
+						+ "'", e);
+			}
+			if (value == null)
+			{
+				throw new IllegalStateException("seek key '" + seekKey
+						+ "' is null, seek keys must be not-null");
+			}
+			key[i] = value;
+		}
+		return key;
+	}
+
+	protected SessionFactory sessionFactory;
+
+	/**
+	 * 分页总记录数缓存，未配置时每次分页都查询总记录数
+	 */
+	protected CountCache countCache;
+
+	/**
+	 * 分页查询的并发执行器，未配置时分页查询都顺序执行
+	 */
+	protected PagingExecutor pagingExecutor;
+
+	@Autowired
+	public void setSessionFactory(SessionFactory sessionFactory)
+	{
+		this.sessionFactory = sessionFactory;
+	}
+
+	@Autowired(required = false)
+	public void setCountCache(CountCache countCache)
+	{
+		this.countCache = countCache;
+	}
+
+	@Autowired(required = false)
+	public void setPagingExecutor(PagingExecutor pagingExecutor)
+	{
+		this.pagingExecutor = pagingExecutor;
+	}
+
+	protected Session getSession()
+	{
+		return sessionFactory.getCurrentSession();
+	}
+}
@@ -0,0 +1,261 @@
+package net.tatans.project.module.common.hibernate3;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import net.tatans.project.module.common.page.Pagination;
+
+import org.apache.commons.lang.StringUtils;
+import org.hibernate.type.IdentifierType;
+import org.springframework.util.Assert;
+
+/**
+ * Project Name:demo-framework
+ * 
+ * Package:net.tatans.project.module.common.hibernate3
+ * 
+ * FileName:HibernateTreeDao.java
+ * 
+ *         Purpose: HibernateTree的DAO基类<br>
+ *         提供子节点、子孙节点、祖先节点的查询。查询语句按getTreeCondition()编译一次后复用，并且都使用查询缓存，
+ *         树被修改时TreeIntercptor的update语句会使对应的查询缓存失效。<br>
+ *         子孙节点只按左值范围查询(lft &gt; :lft and lft &lt; :rgt)，附加条件和左值上的联合索引即可覆盖；
+ *         祖先节点需要同时比较左右值，深度通常很小；PathHibernateTree的祖先节点ID直接从路径解析，
+ *         先从session和二级缓存中获取，不需要查询。<br>
+ *         查询使用实体中的左右值，同一session中修改过树结构后，需要先refresh节点再查询。
+ * 
+ *         Create Time: 2026年10月18日 上午2:05:40
+ * 
+ * @param <T>
+ *            entity class
+ * @param <ID>
+ *            entity id
+ * 
+ *            Version: 1.0
+ */
+public abstract class HibernateTreeDao<T extends HibernateTree<ID>, ID extends Number & Serializable>
+		extends HibernateBaseDao<T, ID>
+{
+	/**
+	 * Purpose: 获得直接子节点，按左值排序
+	 * 
+	 * @param node
+	 * @return
+	 * 
+	 *         Version: 1.0
+	 */
+	@SuppressWarnings("unchecked")
+	protected List<T> getChildren(T node)
+	{
+		return find(bind(getTemplates(node).children, node.getId()));
+	}
+
+	/**
+	 * Purpose: 获得子孙节点，不包括节点自己，按左值排序，即先序遍历的顺序
+	 * 
+	 * @param node
+	 * @return
+	 * 
+	 *         Version: 1.0
+	 */
+	@SuppressWarnings("unchecked")
+	protected List<T> getDescendants(T node)
+	{
+		return find(bind(getTemplates(node).descendants, node.getLft(),
+				node.getRgt()));
+	}
+
+	/**
+	 * Purpose: 分页获得子孙节点
+	 * 
+	 * @param node
+	 * @param pageNo
+	 * @param pageSize
+	 * @return
+	 * 
+	 *         Version: 1.0
+	 */
+	protected Pagination getDescendants(T node, int pageNo, int pageSize)
+	{
+		return find(bind(getTemplates(node).descendants, node.getLft(),
+				node.getRgt()), pageNo, pageSize);
+	}
+
+	/**
+	 * Purpose: 获得祖先节点，不包括节点自己，从根节点开始。<br>
+	 * PathHibernateTree按路径中的ID通过getAll获取，其他树按左右值查询。
+	 * 
+	 * @param node
+	 * @return
+	 * 
+	 *         Version: 1.0
+	 */
+	@SuppressWarnings("unchecked")
+	protected List<T> getAncestors(T node)
+	{
+		if (node instanceof PathHibernateTree
+				&& ((PathHibernateTree<?>) node).getPath() != null)
+		{
+			return getAll(getAncestorIds(node));
+		}
+		return find(bind(getTemplates(node).ancestors, node.getLft(),
+				node.getRgt()));
+	}
+
+	/**
+	 * Purpose: 从路径中解析祖先节点ID，不查询数据库，从根节点开始
+	 * 
+	 * @param node
+	 *            PathHibernateTree节点
+	 * @return
+	 * 
+	 *         Version: 1.0
+	 */
+	@SuppressWarnings("unchecked")
+	protected List<ID> getAncestorIds(T node)
+	{
+		Assert.isInstanceOf(PathHibernateTree.class, node);
+		String path = ((PathHibernateTree<?>) node).getPath();
+		IdentifierType type = (IdentifierType) sessionFactory
+				.getClassMetadata(getEntityClass()).getIdentifierType();
+		List<ID> ids = new ArrayList<ID>();
+		for (String id : StringUtils.split(path,
+				PathHibernateTree.PATH_SEPARATOR))
+		{
+			try
+			{
+				ids.add((ID) type.stringToObject(id));
+			} catch (Exception e)
+			{
+				throw new IllegalStateException("illegal tree path: " + path,
+						e);
+			}
+		}
+		return ids;
+	}
+
+	/**
+	 * Purpose: 按路径前缀获得子孙节点，不包括节点自己，按左值排序。<br>
+	 * 使用path like '前缀%'查询，路径字段上的索引即可覆盖，不需要节点的左右值是最新的。
+	 * 
+	 * @param node
+	 *            PathHibernateTree节点
+	 * @return
+	 * 
+	 *         Version: 1.0
+	 */
+	@SuppressWarnings("unchecked")
+	protected List<T> getDescendantsByPath(T node)
+	{
+		Assert.isInstanceOf(PathHibernateTree.class, node);
+		String path = ((PathHibernateTree<?>) node).getPath();
+		Assert.notNull(path, "tree path is null");
+		return find(bind(getTemplates(node).descendantsByPath, path
+				+ node.getId() + PathHibernateTree.PATH_SEPARATOR + "%"));
+	}
+
+	/**
+	 * Purpose: 获得子孙节点数。紧凑编号的树直接由左右值计算(rgt-lft-1)/2，不查询数据库；
+	 * SparseHibernateTree的左右值之间有空隙，需要count查询。
+	 * 
+	 * @param node
+	 * @return
+	 * 
+	 *         Version: 1.0
+	 */
+	protected int countDescendants(T node)
+	{
+		if (node instanceof SparseHibernateTree)
+		{
+			return countQueryResult(bind(getTemplates(node).descendants,
+					node.getLft(), node.getRgt()));
+		}
+		return (node.getRgt().intValue() - node.getLft().intValue() - 1) / 2;
+	}
+
+	/**
+	 * Purpose: 是否叶子节点。紧凑编号的树直接比较左右值，SparseHibernateTree需要查询
+	 * 
+	 * @param node
+	 * @return
+	 * 
+	 *         Version: 1.0
+	 */
+	protected boolean isLeaf(T node)
+	{
+		return countDescendants(node) == 0;
+	}
+
+	/**
+	 * 绑定参数并使用查询缓存
+	 */
+	private Finder bind(FinderTemplate template, Object... values)
+	{
+		Finder finder = template.bind(values);
+		finder.setCacheable(true);
+		return finder;
+	}
+
+	/**
+	 * 获得附加条件对应的查询模板，同一条件只编译一次
+	 */
+	private Templates getTemplates(T node)
+	{
+		String condition = StringUtils.defaultString(node.getTreeCondition());
+		Templates templates = templatesCache.get(condition);
+		if (templates == null)
+		{
+			templates = new Templates(getEntityClass().getName(), node,
+					condition);
+			Templates exist = templatesCache.putIfAbsent(condition, templates);
+			if (exist != null)
+			{
+				templates = exist;
+			}
+		}
+		return templates;
+	}
+
+	/**
+	 * 同一实体类、同一附加条件下的查询模板
+	 */
+	private static final class Templates
+	{
+		private final FinderTemplate children;
+		private final FinderTemplate descendants;
+		private final FinderTemplate ancestors;
+		private final FinderTemplate descendantsByPath;
+
+		private Templates(String entityName, HibernateTree<?> node,
+				String condition)
+		{
+			String from = "from " + entityName + " bean where ";
+			String where = StringUtils.isBlank(condition) ? "" : " and ("
+					+ condition + ")";
+			String lft = "bean." + node.getLftName();
+			String rgt = "bean." + node.getRgtName();
+			String orderBy = " order by " + lft;
+			children = FinderTemplate.compile(from + "bean."
+					+ node.getParentName() + ".id=:parentId" + where + orderBy);
+			descendants = FinderTemplate.compile(from + lft + ">:lft and "
+					+ lft + "<:rgt" + where + orderBy);
+			ancestors = FinderTemplate.compile(from + lft + "<:lft and " + rgt
+					+ ">:rgt" + where + orderBy);
+			if (node instanceof PathHibernateTree)
+			{
+				// 路径由ID组成，不同的树不会有相同的前缀，不需要附加条件
+				descendantsByPath = FinderTemplate.compile(from + "bean."
+						+ ((PathHibernateTree<?>) node).getPathName()
+						+ " like :prefix" + orderBy);
+			} else
+			{
+				descendantsByPath = null;
+			}
+		}
+	}
+
+	private final ConcurrentMap<String, Templates> templatesCache = new ConcurrentHashMap<String, Templates>();
+}
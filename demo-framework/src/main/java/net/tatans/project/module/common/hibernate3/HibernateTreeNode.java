@@ -0,0 +1,48 @@
+package net.tatans.project.module.common.hibernate3;
+
+/**
+ * Hibernate实现父子结构tree的节点，由TreeIntercptor根据对应的TreeStrategy维护树结构
+ * 
+ * @see TreeStrategy
+ */
+public interface HibernateTreeNode<T extends Number> {
+	/**
+	 * 默认父节点属性名称
+	 */
+	public static final String DEF_PARENT_NAME = "parent";
+	/**
+	 * 实体类别名
+	 */
+	public static final String ENTITY_ALIAS = "bean";
+
+	/**
+	 * 获得父节点属性名称
+	 * 
+	 * @return
+	 */
+	public String getParentName();
+
+	/**
+	 * 获得父节点ID
+	 * 
+	 * @return 如果没有父节点，则返回null。
+	 */
+	public T getParentId();
+
+	/**
+	 * 获得树ID
+	 * 
+	 * @return
+	 */
+	public T getId();
+
+	/**
+	 * 获得附加条件
+	 * 
+	 * 通过附加条件可以维护多棵树相互独立的树，附加条件使用hql语句，实体别名为bean。例如：bean.website.id=5
+	 * 
+	 * @return 为null则不添加任何附加条件
+	 * @see HibernateTreeNode#ENTITY_ALIAS
+	 */
+	public String getTreeCondition();
+}
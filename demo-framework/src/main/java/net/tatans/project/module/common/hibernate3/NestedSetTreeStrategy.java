@@ -0,0 +1,949 @@
+package net.tatans.project.module.common.hibernate3;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+
+import org.apache.commons.lang.StringUtils;
+import org.hibernate.EmptyInterceptor;
+import org.hibernate.EntityMode;
+import org.hibernate.FlushMode;
+import org.hibernate.Hibernate;
+import org.hibernate.Query;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.metadata.ClassMetadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 以The Nested Set Model维护HibernateTree，是TreeIntercptor的默认策略。
+ * 
+ * 新增节点时平移右边的节点；SparseHibernateTree的左右值之间预留空隙，空隙用完时才平移，并在事务提交后重新编号。
+ * 
+ * 推迟模式下，事务中的新增、移动、删除只记录在内存中，提交前每棵树通过TreeRebuilder统一重建一次左右值，
+ * 适合一个事务中新增大量节点，例如复制子树。推迟期间节点的左右值不正确，不能用于查询，新节点的左右值为0。
+ * 推迟的状态保存在Spring事务中，重建在beforeCommit中执行，失败时事务回滚，因此推迟模式必须在Spring管理的事务中使用。
+ * 
+ * @see HibernateTree
+ * @see SparseHibernateTree
+ */
+public class NestedSetTreeStrategy implements TreeStrategy {
+	private static final Logger log = LoggerFactory
+			.getLogger(NestedSetTreeStrategy.class);
+	/**
+	 * 推迟时检查移动的最大深度，超过时认为父节点有环
+	 */
+	private static final int MAX_DEFERRED_DEPTH = 10000;
+	/**
+	 * 稀疏树重新编号的执行器，为null时在提交事务的线程中执行
+	 */
+	private Executor rebalanceExecutor;
+	/**
+	 * 各事务中需要重新编号的稀疏树。按hibernate事务区分，只在该事务提交后处理，
+	 * REQUIRES_NEW的内层事务提交时不会处理外层事务的树(外层事务仍持有树的锁)
+	 */
+	private final ConcurrentMap<Transaction, PendingRebalance> pendingRebalance = new ConcurrentHashMap<Transaction, PendingRebalance>();
+	private TreeMutationCoordinator coordinator = new TreeMutationCoordinator();
+	private TreeSnapshotCache snapshotCache;
+	private TreeRebuilder rebuilder;
+	/**
+	 * 是否在所有事务中推迟左右值的维护
+	 */
+	private boolean deferred;
+
+	public boolean supports(Object entity) {
+		return entity instanceof HibernateTree;
+	}
+
+	public boolean onSave(Session session, HibernateTreeNode<?> node,
+			Object[] state, String[] propertyNames) {
+		HibernateTree<?> tree = (HibernateTree<?>) node;
+		insertNode(session, tree, state, propertyNames);
+		if (tree instanceof PathHibernateTree) {
+			PathHibernateTree<?> pathTree = (PathHibernateTree<?>) tree;
+			// 推迟时路径与左右值一起在提交前重建
+			String path = isDeferred(tree) ? "" : getChildPath(session,
+					pathTree, getParent(tree, state, propertyNames));
+			setPath(pathTree, state, propertyNames, path);
+		}
+		return true;
+	}
+
+	public boolean onMove(Session session, HibernateTreeNode<?> node,
+			HibernateTreeNode<?> preParent, HibernateTreeNode<?> currParent,
+			Object[] state, String[] propertyNames) {
+		HibernateTree<?> tree = (HibernateTree<?>) node;
+		boolean modified = moveNode(session, tree, preParent, currParent);
+		if (tree instanceof PathHibernateTree && !isDeferred(tree)) {
+			movePath(session, (PathHibernateTree<?>) tree, currParent, state,
+					propertyNames);
+			modified = true;
+		}
+		return modified;
+	}
+
+	private void insertNode(Session session, HibernateTree<?> tree,
+			Object[] state, String[] propertyNames) {
+		if (isDeferred(tree)) {
+			getDeferredTree(session, tree).append(tree);
+			setPosition(tree, state, propertyNames, 0, 0);
+			return;
+		}
+		Number parentId = tree.getParentId();
+		String beanName = tree.getClass().getName();
+		FlushMode model = session.getFlushMode();
+		session.setFlushMode(FlushMode.MANUAL);
+		Integer myPosition;
+		Integer myRgt = null;
+		if (tree instanceof SparseHibernateTree) {
+			int[] position = getSparsePosition(session,
+					(SparseHibernateTree<?>) tree);
+			myPosition = position[0];
+			myRgt = position[1];
+		} else if (parentId != null) {
+			// 如果父节点不为null，则获取节点的右边位置
+			String hql = "select bean." + tree.getRgtName() + " from "
+					+ beanName + " bean where bean.id=:pid";
+			myPosition = ((Number) session.createQuery(hql).setParameter(
+					"pid", parentId).uniqueResult()).intValue();
+			shift(session, tree, ">=", myPosition, 2);
+		} else {
+			// 否则查找最大的右边位置
+			String hql = "select max(bean." + tree.getRgtName() + ") from "
+					+ beanName + " bean";
+			if (!StringUtils.isBlank(tree.getTreeCondition())) {
+				hql += " where " + tree.getTreeCondition();
+			}
+			Number myPositionNumber = (Number) session.createQuery(hql)
+					.uniqueResult();
+			// 如不存在，则为0
+			if (myPositionNumber == null) {
+				myPosition = 1;
+			} else {
+				myPosition = myPositionNumber.intValue() + 1;
+			}
+		}
+		session.setFlushMode(model);
+		if (myRgt == null) {
+			myRgt = myPosition + 1;
+		}
+		setPosition(tree, state, propertyNames, myPosition, myRgt);
+	}
+
+	/**
+	 * 新节点的路径：父节点的路径加父节点ID。父节点的路径从数据库读取，避免使用session中已经过期的值；
+	 * 父节点还没有写入数据库时使用实体中的值。
+	 */
+	private String getChildPath(Session session, PathHibernateTree<?> tree,
+			Object parent) {
+		if (parent == null) {
+			return PathHibernateTree.PATH_SEPARATOR;
+		}
+		PathHibernateTree<?> parentTree = (PathHibernateTree<?>) parent;
+		FlushMode model = session.getFlushMode();
+		session.setFlushMode(FlushMode.MANUAL);
+		String hql = "select bean." + tree.getPathName() + " from "
+				+ tree.getClass().getName() + " bean where bean.id=:pid";
+		String parentPath = (String) session.createQuery(hql).setParameter(
+				"pid", parentTree.getId()).uniqueResult();
+		session.setFlushMode(model);
+		if (parentPath == null) {
+			parentPath = parentTree.getPath();
+		}
+		if (parentPath == null) {
+			throw new IllegalStateException("path of tree node "
+					+ parentTree.getId()
+					+ " is null, rebuild the tree by TreeRebuilder first");
+		}
+		return parentPath + parentTree.getId()
+				+ PathHibernateTree.PATH_SEPARATOR;
+	}
+
+	/**
+	 * 以一条update语句替换节点和所有子孙节点的路径前缀：原路径替换为新路径，子孙节点的路径都以"原路径+节点ID/"开头
+	 */
+	private void movePath(Session session, PathHibernateTree<?> tree,
+			HibernateTreeNode<?> currParent, Object[] state,
+			String[] propertyNames) {
+		String beanName = tree.getClass().getName();
+		String pathName = "bean." + tree.getPathName();
+		FlushMode model = session.getFlushMode();
+		session.setFlushMode(FlushMode.MANUAL);
+		String oldPath = (String) session.createQuery(
+				"select " + pathName + " from " + beanName
+						+ " bean where bean.id=:id").setParameter("id",
+				tree.getId()).uniqueResult();
+		String newPath = getChildPath(session, tree, currParent);
+		if (oldPath == null) {
+			session.setFlushMode(model);
+			throw new IllegalStateException("path of tree node "
+					+ tree.getId()
+					+ " is null, rebuild the tree by TreeRebuilder first");
+		}
+		String hql = "update " + beanName + " bean set " + pathName
+				+ "=concat(:newPath, substring(" + pathName
+				+ ", :start)) where bean.id=:id or " + pathName
+				+ " like :prefix";
+		int count = session.createQuery(hql).setString("newPath", newPath)
+				.setInteger("start", oldPath.length() + 1).setParameter("id",
+						tree.getId()).setString(
+						"prefix",
+						oldPath + tree.getId()
+								+ PathHibernateTree.PATH_SEPARATOR + "%")
+				.executeUpdate();
+		session.setFlushMode(model);
+		if (log.isDebugEnabled()) {
+			log.debug("move path {} to {}, nodes={}", new Object[] { oldPath,
+					newPath, count });
+		}
+		setPath(tree, state, propertyNames, newPath);
+	}
+
+	private static void setPath(PathHibernateTree<?> tree, Object[] state,
+			String[] propertyNames, String path) {
+		for (int i = 0; i < propertyNames.length; i++) {
+			if (propertyNames[i].equals(tree.getPathName())) {
+				state[i] = path;
+			}
+		}
+		tree.setPath(path);
+	}
+
+	private static Object getParent(HibernateTree<?> tree, Object[] state,
+			String[] propertyNames) {
+		for (int i = 0; i < propertyNames.length; i++) {
+			if (propertyNames[i].equals(tree.getParentName())) {
+				return state[i];
+			}
+		}
+		return null;
+	}
+
+	private static void setPosition(HibernateTree<?> tree, Object[] state,
+			String[] propertyNames, Integer lft, Integer rgt) {
+		for (int i = 0; i < propertyNames.length; i++) {
+			if (propertyNames[i].equals(tree.getLftName())) {
+				state[i] = lft;
+			}
+			if (propertyNames[i].equals(tree.getRgtName())) {
+				state[i] = rgt;
+			}
+		}
+	}
+
+	private boolean moveNode(Session session, HibernateTree<?> tree,
+			HibernateTreeNode<?> preParent, HibernateTreeNode<?> currParent) {
+		String beanName = tree.getClass().getName();
+		if (log.isDebugEnabled()) {
+			log.debug("update Tree {}, id={}, "
+					+ "pre-parent id={}, curr-parent id={}", new Object[] {
+					beanName, tree.getId(),
+					preParent == null ? null : preParent.getId(),
+					currParent == null ? null : currParent.getId() });
+		}
+		if (isDeferred(tree)) {
+			checkDeferredMove(session, tree, currParent);
+			getDeferredTree(session, tree).append(tree);
+			return false;
+		}
+		// 保存刷新模式，并设置成手动刷新
+		FlushMode model = session.getFlushMode();
+		session.setFlushMode(FlushMode.MANUAL);
+		if (tree instanceof SparseHibernateTree) {
+			try {
+				updateSparseParent(session, (SparseHibernateTree<?>) tree,
+						currParent);
+			} finally {
+				session.setFlushMode(model);
+			}
+			return true;
+		}
+		// 一次读出节点位置和插入位置：新父节点的右值，或者最大的右值之后
+		String hql;
+		Query query;
+		if (currParent != null) {
+			hql = "select node." + tree.getLftName() + ", node."
+					+ tree.getRgtName() + ", parent." + tree.getRgtName()
+					+ " from " + beanName + " node, " + beanName
+					+ " parent where node.id=:id and parent.id=:pid";
+			query = session.createQuery(hql).setParameter("pid",
+					currParent.getId());
+		} else {
+			hql = "select node." + tree.getLftName() + ", node."
+					+ tree.getRgtName() + ", (select max(bean."
+					+ tree.getRgtName() + ") + 1 from " + beanName + " bean";
+			if (!StringUtils.isBlank(tree.getTreeCondition())) {
+				hql += " where " + tree.getTreeCondition();
+			}
+			hql += ") from " + beanName + " node where node.id=:id";
+			query = session.createQuery(hql);
+		}
+		Object[] position = (Object[]) query.setParameter("id", tree.getId())
+				.uniqueResult();
+		int nodeLft = ((Number) position[0]).intValue();
+		int nodeRgt = ((Number) position[1]).intValue();
+		int target = ((Number) position[2]).intValue();
+		if (log.isDebugEnabled()) {
+			log.debug("move node left={} right={} to position={}",
+					new Object[] { nodeLft, nodeRgt, target });
+		}
+		if (target > nodeLft && target <= nodeRgt) {
+			session.setFlushMode(model);
+			throw new IllegalStateException("cannot move tree node "
+					+ tree.getId() + " under its descendant "
+					+ currParent.getId());
+		}
+		move(session, tree, nodeLft, nodeRgt, target);
+		session.setFlushMode(model);
+		return true;
+	}
+
+	public void onDelete(Session session, HibernateTreeNode<?> node) {
+		// 稀疏编号的树删除节点时不回收位置
+		if (node instanceof SparseHibernateTree) {
+			return;
+		}
+		HibernateTree<?> tree = (HibernateTree<?>) node;
+		if (isDeferred(tree)) {
+			getDeferredTree(session, tree);
+			return;
+		}
+		String beanName = tree.getClass().getName();
+		FlushMode model = session.getFlushMode();
+		session.setFlushMode(FlushMode.MANUAL);
+		String hql = "select bean." + tree.getLftName() + " from "
+				+ beanName + " bean where bean.id=:id";
+		Integer myPosition = ((Number) session.createQuery(hql)
+				.setParameter("id", tree.getId()).uniqueResult())
+				.intValue();
+		shift(session, tree, ">", myPosition, -2);
+		session.setFlushMode(model);
+	}
+
+	public void postFlush(Session session) {
+	}
+
+	/**
+	 * hibernate会忽略此时抛出的异常，推迟维护的树在Spring事务的beforeCommit中重建
+	 */
+	public void beforeTransactionCompletion(Session session) {
+	}
+
+	public void afterTransactionCompletion(boolean committed) {
+	}
+
+	/**
+	 * 一个事务中需要重新编号的稀疏树，事务提交后重新编号
+	 */
+	private final class PendingRebalance implements Synchronization {
+		private final Transaction tx;
+		/**
+		 * 重新编号使用的SessionFactory，取自平移节点的session
+		 */
+		private final SessionFactory sessionFactory;
+		private final Map<String, SparseHibernateTree<?>> trees = new HashMap<String, SparseHibernateTree<?>>();
+
+		private PendingRebalance(Transaction tx, SessionFactory sessionFactory) {
+			this.tx = tx;
+			this.sessionFactory = sessionFactory;
+		}
+
+		public void beforeCompletion() {
+		}
+
+		public void afterCompletion(int status) {
+			pendingRebalance.remove(tx);
+			// 回滚后左右值已经恢复，不需要重新编号
+			if (status != Status.STATUS_COMMITTED) {
+				return;
+			}
+			for (final SparseHibernateTree<?> tree : trees.values()) {
+				if (rebalanceExecutor != null) {
+					// 同一棵树已经在排队时不再重复提交
+					coordinator.coalesce(tree, rebalanceExecutor,
+							new Runnable() {
+								public void run() {
+									rebalanceQuietly(sessionFactory, tree);
+								}
+							});
+				} else {
+					rebalanceQuietly(sessionFactory, tree);
+				}
+			}
+		}
+	}
+
+	/**
+	 * 在当前Spring事务中推迟左右值的维护，事务结束后恢复
+	 * 
+	 * @throws IllegalStateException
+	 *             没有Spring管理的事务
+	 */
+	public void defer() {
+		getDeferredTransaction(true).all = true;
+	}
+
+	/**
+	 * 事务中已经推迟过的树，之后的修改也必须推迟，因为此时的左右值已经不正确
+	 */
+	private boolean isDeferred(HibernateTree<?> tree) {
+		if (deferred) {
+			return true;
+		}
+		DeferredTransaction tx = getDeferredTransaction(false);
+		return tx != null
+				&& (tx.all || tx.trees.containsKey(TreeMutationCoordinator
+						.getKey(tree)));
+	}
+
+	private DeferredTree getDeferredTree(Session session,
+			HibernateTree<?> tree) {
+		DeferredTransaction tx = getDeferredTransaction(true);
+		tx.session = session;
+		String key = TreeMutationCoordinator.getKey(tree);
+		DeferredTree deferredTree = tx.trees.get(key);
+		if (deferredTree == null) {
+			deferredTree = new DeferredTree(tree);
+			tx.trees.put(key, deferredTree);
+		}
+		return deferredTree;
+	}
+
+	/**
+	 * 当前Spring事务中推迟维护的状态。以本策略为key绑定到事务，随事务挂起和恢复，REQUIRES_NEW的内层事务有自己的状态
+	 */
+	private DeferredTransaction getDeferredTransaction(boolean create) {
+		DeferredTransaction tx = (DeferredTransaction) TransactionSynchronizationManager
+				.getResource(this);
+		if (tx != null || !create) {
+			return tx;
+		}
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			throw new IllegalStateException(
+					"deferred tree maintenance requires a spring managed transaction");
+		}
+		tx = new DeferredTransaction(this);
+		TransactionSynchronizationManager.registerSynchronization(tx);
+		TransactionSynchronizationManager.bindResource(this, tx);
+		return tx;
+	}
+
+	/**
+	 * 重建推迟维护的树，异常由Spring回滚事务
+	 */
+	private void rebuildDeferred(DeferredTransaction tx) {
+		// 重建前flush，flush中的修改可能再次登记推迟的树
+		while (!tx.trees.isEmpty()) {
+			tx.session.flush();
+			List<DeferredTree> trees = new ArrayList<DeferredTree>(tx.trees
+					.values());
+			tx.trees.clear();
+			TreeRebuilder r = getRebuilder(tx.session.getSessionFactory());
+			for (DeferredTree deferredTree : trees) {
+				r.rebuild(tx.session, deferredTree.tree, deferredTree
+						.getLastIds());
+			}
+		}
+	}
+
+	/**
+	 * 一个Spring事务中推迟维护的树，提交前重建
+	 */
+	private static final class DeferredTransaction extends
+			TransactionSynchronizationAdapter {
+		private final NestedSetTreeStrategy strategy;
+		private final Map<String, DeferredTree> trees = new HashMap<String, DeferredTree>();
+		/**
+		 * 是否推迟事务中所有树的维护
+		 */
+		private boolean all;
+		/**
+		 * 最近一次登记推迟时的session
+		 */
+		private Session session;
+
+		private DeferredTransaction(NestedSetTreeStrategy strategy) {
+			this.strategy = strategy;
+		}
+
+		@Override
+		public void suspend() {
+			TransactionSynchronizationManager.unbindResource(strategy);
+		}
+
+		@Override
+		public void resume() {
+			TransactionSynchronizationManager.bindResource(strategy, this);
+		}
+
+		@Override
+		public void beforeCommit(boolean readOnly) {
+			strategy.rebuildDeferred(this);
+		}
+
+		@Override
+		public void afterCompletion(int status) {
+			TransactionSynchronizationManager.unbindResourceIfPossible(strategy);
+		}
+	}
+
+	/**
+	 * 推迟时左右值不可用，沿父节点向上查找，新父节点不能是节点自己的子孙。
+	 * 父节点从session中获取，包括尚未flush的修改，复杂度为O(深度)。
+	 */
+	private void checkDeferredMove(Session session, HibernateTree<?> tree,
+			HibernateTreeNode<?> currParent) {
+		if (currParent == null) {
+			return;
+		}
+		ClassMetadata metadata = session.getSessionFactory().getClassMetadata(
+				Hibernate.getClass(tree));
+		Object parent = currParent;
+		int depth = 0;
+		while (parent != null) {
+			if (tree.getId().equals(((HibernateTreeNode<?>) parent).getId())
+					|| ++depth > MAX_DEFERRED_DEPTH) {
+				throw new IllegalStateException("cannot move tree node "
+						+ tree.getId() + " under its descendant "
+						+ currParent.getId());
+			}
+			parent = metadata.getPropertyValue(parent, tree.getParentName(),
+					EntityMode.POJO);
+		}
+	}
+
+	/**
+	 * 推迟维护的树，以及新增或移动过的节点
+	 */
+	private static final class DeferredTree {
+		private final HibernateTree<?> tree;
+		private final List<HibernateTreeNode<?>> nodes = new ArrayList<HibernateTreeNode<?>>();
+
+		private DeferredTree(HibernateTree<?> tree) {
+			this.tree = tree;
+		}
+
+		private void append(HibernateTreeNode<?> node) {
+			nodes.add(node);
+		}
+
+		/**
+		 * 节点按最后一次新增或移动的顺序排在同级节点的最后
+		 */
+		private Collection<Number> getLastIds() {
+			Set<Number> ids = new LinkedHashSet<Number>();
+			for (HibernateTreeNode<?> node : nodes) {
+				if (node.getId() != null) {
+					ids.remove(node.getId());
+					ids.add(node.getId());
+				}
+			}
+			return ids;
+		}
+	}
+
+	/**
+	 * 子孙节点按左值排序
+	 */
+	public Finder getDescendants(HibernateTreeNode<?> node) {
+		HibernateTree<?> tree = (HibernateTree<?>) node;
+		return createRangeFinder(tree, ">", "<").setParam("lft",
+				tree.getLft()).setParam("rgt", tree.getRgt());
+	}
+
+	/**
+	 * 祖先节点按左值排序，即从根节点开始
+	 */
+	public Finder getAncestors(HibernateTreeNode<?> node) {
+		HibernateTree<?> tree = (HibernateTree<?>) node;
+		return createRangeFinder(tree, "<", ">").setParam("lft",
+				tree.getLft()).setParam("rgt", tree.getRgt());
+	}
+
+	private Finder createRangeFinder(HibernateTree<?> tree, String lftOperator,
+			String rgtOperator) {
+		Finder f = Finder.create("from " + tree.getClass().getName()
+				+ " bean where bean." + tree.getLftName() + " " + lftOperator
+				+ " :lft and bean." + tree.getRgtName() + " " + rgtOperator
+				+ " :rgt");
+		if (!StringUtils.isBlank(tree.getTreeCondition())) {
+			f.append(" and (" + tree.getTreeCondition() + ")");
+		}
+		f.append(" order by bean." + tree.getLftName());
+		return f;
+	}
+
+	/**
+	 * 重新均匀编号稀疏树，相邻的左右值相差getTreeGap()。
+	 * 
+	 * 在独立的session和事务中通过TreeRebuilder执行，只更新编号变化的节点，以JDBC批量方式写入。
+	 * 重新编号期间持有树的锁，其他事务修改同一棵树时需要等待。
+	 * 
+	 * @param sessionFactory
+	 * @param tree
+	 *            树中的任意节点，用于获得实体类和附加条件
+	 */
+	public void rebalance(SessionFactory sessionFactory,
+			SparseHibernateTree<?> tree) {
+		coordinator.lock(tree);
+		try {
+			// 不经过TreeIntercptor，避免事务结束时释放调用者持有的锁
+			Session session = sessionFactory.openSession(
+					EmptyInterceptor.INSTANCE);
+			Transaction tx = session.beginTransaction();
+			try {
+				getRebuilder(sessionFactory).rebuild(session, tree);
+				tx.commit();
+				if (snapshotCache != null) {
+					snapshotCache.invalidate(tree);
+				}
+			} catch (RuntimeException e) {
+				tx.rollback();
+				throw e;
+			} finally {
+				session.close();
+			}
+		} finally {
+			coordinator.unlock(tree);
+		}
+	}
+
+	private void rebalanceQuietly(SessionFactory sessionFactory,
+			SparseHibernateTree<?> tree) {
+		try {
+			rebalance(sessionFactory, tree);
+		} catch (RuntimeException e) {
+			// 事务已经提交，树的结构仍然正确，只是空隙没有恢复
+			log.error("rebalance tree failed: " + tree.getClass().getName()
+					+ ", condition: " + tree.getTreeCondition(), e);
+		}
+	}
+
+	protected TreeRebuilder getRebuilder(SessionFactory sessionFactory) {
+		if (rebuilder == null) {
+			TreeRebuilder r = new TreeRebuilder();
+			r.setSessionFactory(sessionFactory);
+			r.setSnapshotCache(snapshotCache);
+			rebuilder = r;
+		}
+		return rebuilder;
+	}
+
+	/**
+	 * 稀疏树新节点的左右值。
+	 * 
+	 * 放在父节点最后一个子节点之后的空隙中，占用空隙的一半(不超过getTreeGap())，剩下的一半留给之后的兄弟节点。
+	 * 空隙用完时平移父节点右边的节点空出位置，并在事务提交后重新编号。
+	 * 
+	 * @return 左值和右值
+	 */
+	private int[] getSparsePosition(Session session,
+			SparseHibernateTree<?> tree) {
+		int gap = Math.max(2, tree.getTreeGap());
+		Number parentId = tree.getParentId();
+		if (parentId == null) {
+			// 根节点放在最大的右值之后
+			int maxRgt = getMaxRgt(session, tree);
+			return new int[] { maxRgt + gap, maxRgt + 2 * gap };
+		}
+		int[] free = getFreeRange(session, tree, parentId);
+		if (free[1] - free[0] - 1 < 2) {
+			makeRoom(session, tree, free[1], gap);
+			free[1] += gap;
+		}
+		int width = Math.max(1, Math.min(gap, (free[1] - free[0] - 1) / 2));
+		return new int[] { free[0] + 1, free[0] + 1 + width };
+	}
+
+	/**
+	 * 稀疏树移动节点：整棵子树平移到新父节点最后一个子节点之后的空隙中，原位置不回收。
+	 * 新父节点不能是节点自己或它的子孙节点。
+	 * 空隙不够时平移新父节点右边的节点空出位置，并在事务提交后重新编号。
+	 */
+	private void updateSparseParent(Session session,
+			SparseHibernateTree<?> tree, HibernateTreeNode<?> currParent) {
+		int gap = Math.max(2, tree.getTreeGap());
+		int[] node = getPosition(session, tree, tree.getId());
+		int width = node[1] - node[0];
+		int start;
+		if (currParent != null) {
+			int[] parent = getPosition(session, tree, currParent.getId());
+			if (parent[0] >= node[0] && parent[0] <= node[1]) {
+				throw new IllegalStateException("cannot move tree node "
+						+ tree.getId() + " under its descendant "
+						+ currParent.getId());
+			}
+			int[] free = getFreeRange(session, tree, currParent.getId());
+			if (free[1] - free[0] - 1 < width + 1) {
+				makeRoom(session, tree, free[1], width + gap);
+				// 节点可能在空出位置时被平移
+				node = getPosition(session, tree, tree.getId());
+			}
+			start = free[0] + 1;
+		} else {
+			start = getMaxRgt(session, tree) + gap;
+		}
+		int offset = start - node[0];
+		String hql = "update " + tree.getClass().getName() + " bean set bean."
+				+ tree.getLftName() + "=bean." + tree.getLftName()
+				+ "+:offset, bean." + tree.getRgtName() + "=bean."
+				+ tree.getRgtName() + "+:offset WHERE bean."
+				+ tree.getLftName() + " between :nodeLft and :nodeRgt";
+		if (!StringUtils.isBlank(tree.getTreeCondition())) {
+			hql += " and (" + tree.getTreeCondition() + ")";
+		}
+		session.createQuery(hql).setParameter("offset", offset).setParameter(
+				"nodeLft", node[0]).setParameter("nodeRgt", node[1])
+				.executeUpdate();
+		log.debug("move sparse subtree [{}, {}] offset={}", new Object[] {
+				node[0], node[1], offset });
+	}
+
+	/**
+	 * 父节点中可用的空隙：最后一个子节点(没有子节点时为父节点)的右值(左值)，以及父节点的右值
+	 */
+	private int[] getFreeRange(Session session, HibernateTree<?> tree,
+			Number parentId) {
+		String beanName = tree.getClass().getName();
+		String hql = "select bean." + tree.getLftName() + ", bean."
+				+ tree.getRgtName() + ", (select max(child."
+				+ tree.getRgtName() + ") from " + beanName + " child where child."
+				+ tree.getParentName() + ".id=bean.id) from " + beanName
+				+ " bean where bean.id=:pid";
+		Object[] row = (Object[]) session.createQuery(hql).setParameter("pid",
+				parentId).uniqueResult();
+		int left = ((Number) (row[2] != null ? row[2] : row[0])).intValue();
+		return new int[] { left, ((Number) row[1]).intValue() };
+	}
+
+	/**
+	 * 空隙用完，从position开始向右平移，并登记事务提交后重新编号
+	 */
+	private void makeRoom(Session session, SparseHibernateTree<?> tree,
+			int position, int offset) {
+		shift(session, tree, ">=", position, offset);
+		Transaction tx = session.getTransaction();
+		PendingRebalance pending = pendingRebalance.get(tx);
+		if (pending == null) {
+			pending = new PendingRebalance(tx, session.getSessionFactory());
+			tx.registerSynchronization(pending);
+			pendingRebalance.put(tx, pending);
+		}
+		pending.trees.put(TreeMutationCoordinator.getKey(tree), tree);
+	}
+
+	private int[] getPosition(Session session, HibernateTree<?> tree,
+			Number id) {
+		String hql = "select bean." + tree.getLftName() + ",bean."
+				+ tree.getRgtName() + " from " + tree.getClass().getName()
+				+ " bean where bean.id=:id";
+		Object[] position = (Object[]) session.createQuery(hql).setParameter(
+				"id", id).uniqueResult();
+		return new int[] { ((Number) position[0]).intValue(),
+				((Number) position[1]).intValue() };
+	}
+
+	private int getMaxRgt(Session session, HibernateTree<?> tree) {
+		String hql = "select max(bean." + tree.getRgtName() + ") from "
+				+ tree.getClass().getName() + " bean";
+		if (!StringUtils.isBlank(tree.getTreeCondition())) {
+			hql += " where " + tree.getTreeCondition();
+		}
+		Number max = (Number) session.createQuery(hql).uniqueResult();
+		return max == null ? 0 : max.intValue();
+	}
+
+	/**
+	 * 把子树[nodeLft, nodeRgt]移动到position之前，用一条update语句同时平移子树和两者之间的节点。
+	 * 
+	 * 向右移动时，子树右边到position之间的节点左移子树的宽度；向左移动时，position到子树左边之间的节点右移子树的宽度。
+	 * 只有这一段范围内的节点需要更新，每个赋值只引用自身的字段。
+	 * 
+	 * @param session
+	 * @param tree
+	 * @param nodeLft
+	 *            子树左值
+	 * @param nodeRgt
+	 *            子树右值
+	 * @param position
+	 *            插入位置，不能在子树内部
+	 * @return 更新的节点数
+	 */
+	private int move(Session session, HibernateTree<?> tree, int nodeLft,
+			int nodeRgt, int position) {
+		Move move = new Move(nodeLft, nodeRgt, position);
+		if (move.offset == 0) {
+			return 0;
+		}
+		String lft = "bean." + tree.getLftName();
+		String rgt = "bean." + tree.getRgtName();
+		String hql = "update " + tree.getClass().getName() + " bean set "
+				+ rgt + " = " + moveExpression(rgt, move) + ", " + lft
+				+ " = " + moveExpression(lft, move) + " WHERE (" + lft
+				+ " between :min and :max or " + rgt
+				+ " between :min and :max)";
+		if (!StringUtils.isBlank(tree.getTreeCondition())) {
+			hql += " and (" + tree.getTreeCondition() + ")";
+		}
+		int count = session.createQuery(hql).setInteger("nodeLft", nodeLft)
+				.setInteger("nodeRgt", nodeRgt).setInteger("from", move.from)
+				.setInteger("to", move.to).setInteger("min", move.min)
+				.setInteger("max", move.max).executeUpdate();
+		if (log.isDebugEnabled()) {
+			log.debug("move hql: {}, nodeLft={}, nodeRgt={}, position={}, count={}",
+					new Object[] { hql, nodeLft, nodeRgt, position, count });
+		}
+		return count;
+	}
+
+	/**
+	 * 子树内的值平移offset，[from, to]范围内的值平移rangeOffset
+	 */
+	private String moveExpression(String field, Move move) {
+		// hibernate的case表达式中不能使用参数，平移量直接写入语句
+		return field + (move.offset < 0 ? " - " : " + ") + "case when "
+				+ field + " between :nodeLft and :nodeRgt then "
+				+ Math.abs(move.offset) + " else 0 end"
+				+ (move.rangeOffset < 0 ? " - " : " + ") + "case when " + field
+				+ " between :from and :to then " + Math.abs(move.rangeOffset)
+				+ " else 0 end";
+	}
+
+	/**
+	 * 把子树[nodeLft, nodeRgt]移动到position之前时的平移量：子树平移offset，
+	 * [from, to]之间的节点平移rangeOffset，只有[min, max]范围内的节点变化
+	 */
+	static final class Move {
+		final int nodeLft;
+		final int nodeRgt;
+		final int offset;
+		final int from;
+		final int to;
+		final int rangeOffset;
+		final int min;
+		final int max;
+
+		Move(int nodeLft, int nodeRgt, int position) {
+			int span = nodeRgt - nodeLft + 1;
+			this.nodeLft = nodeLft;
+			this.nodeRgt = nodeRgt;
+			if (position > nodeRgt) {
+				offset = position - 1 - nodeRgt;
+				from = nodeRgt + 1;
+				to = position - 1;
+				rangeOffset = -span;
+			} else {
+				offset = position - nodeLft;
+				from = position;
+				to = nodeLft - 1;
+				rangeOffset = span;
+			}
+			min = Math.min(nodeLft, from);
+			max = Math.max(nodeRgt, to);
+		}
+
+		/**
+		 * 与moveExpression相同的计算，得到左值或右值移动后的值
+		 */
+		int apply(int value) {
+			int result = value;
+			if (value >= nodeLft && value <= nodeRgt) {
+				result += offset;
+			}
+			if (value >= from && value <= to) {
+				result += rangeOffset;
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * 平移位置之后的节点，用一条update语句同时调整左右值。
+	 * 
+	 * 左值满足条件的节点，右值一定也满足条件，所以按右值筛选节点，左值用case判断平移量。
+	 * 每个赋值只引用自身的字段，与数据库按什么顺序执行赋值无关(MySQL按从左到右的顺序执行)。
+	 * 
+	 * @param session
+	 * @param tree
+	 * @param operator
+	 *            比较运算符，>或>=
+	 * @param position
+	 *            位置
+	 * @param offset
+	 *            平移量，负数表示向左平移
+	 * @return 更新的节点数
+	 */
+	private int shift(Session session, HibernateTree<?> tree, String operator,
+			int position, int offset) {
+		String lft = "bean." + tree.getLftName();
+		String rgt = "bean." + tree.getRgtName();
+		// hibernate的case表达式中不能使用参数，平移量直接写入语句
+		String sign = offset < 0 ? " - " : " + ";
+		int distance = Math.abs(offset);
+		String hql = "update " + tree.getClass().getName() + " bean set "
+				+ rgt + " = " + rgt + sign + distance + ", " + lft + " = "
+				+ lft + sign + "case when " + lft + " " + operator
+				+ " :position then " + distance + " else 0 end WHERE " + rgt
+				+ " " + operator + " :position";
+		if (!StringUtils.isBlank(tree.getTreeCondition())) {
+			hql += " and (" + tree.getTreeCondition() + ")";
+		}
+		int count = session.createQuery(hql).setInteger("position", position)
+				.executeUpdate();
+		if (log.isDebugEnabled()) {
+			log.debug("shift hql: {}, position={}, offset={}, count={}",
+					new Object[] { hql, position, offset, count });
+		}
+		return count;
+	}
+
+	/**
+	 * 设置稀疏树重新编号的执行器，用于在后台重新编号
+	 * 
+	 * @param rebalanceExecutor
+	 */
+	public void setRebalanceExecutor(Executor rebalanceExecutor) {
+		this.rebalanceExecutor = rebalanceExecutor;
+	}
+
+	/**
+	 * 设置树修改的协调器，重新编号时加锁
+	 * 
+	 * @param coordinator
+	 */
+	public void setCoordinator(TreeMutationCoordinator coordinator) {
+		this.coordinator = coordinator;
+	}
+
+	/**
+	 * 设置是否在所有事务中推迟左右值的维护，修改树的事务必须由Spring管理
+	 * 
+	 * @param deferred
+	 */
+	public void setDeferred(boolean deferred) {
+		this.deferred = deferred;
+	}
+
+	/**
+	 * 设置树快照缓存，重新编号后使对应的快照失效
+	 * 
+	 * @param snapshotCache
+	 */
+	public void setSnapshotCache(TreeSnapshotCache snapshotCache) {
+		this.snapshotCache = snapshotCache;
+	}
+}
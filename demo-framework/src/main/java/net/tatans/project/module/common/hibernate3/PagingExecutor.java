@@ -0,0 +1,175 @@
+package net.tatans.project.module.common.hibernate3;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+
+/**
+ * Project Name:demo-framework
+ * 
+ * Package:net.tatans.project.module.common.hibernate3
+ * 
+ * FileName:PagingExecutor.java
+ * 
+ *         Purpose: 分页查询的并发执行器。<br>
+ *         分页时在独立的session(FlushMode.MANUAL)中执行count查询，同时在当前session中执行列表查询。
+ *         每个count任务占用一个数据库连接，同时占用的连接数不超过maxConnections，
+ *         避免耗尽连接池；获取不到连接配额时，调用方退回到顺序执行。
+ *         未设置maxConnections时，取连接池大小maxPoolSize的1/5。
+ * 
+ *         Create Time: 2026年10月17日 下午2:15:37
+ * 
+ *         Version: 1.0
+ */
+public class PagingExecutor implements DisposableBean
+{
+	private static final Logger log = LoggerFactory
+			.getLogger(PagingExecutor.class);
+
+	/**
+	 * Purpose: 提交查询任务。获取不到连接配额，或执行器已满时返回null，调用方应当顺序执行。
+	 * 
+	 * @param task
+	 * @return
+	 * 
+	 *         Version: 1.0
+	 */
+	public <T> Future<T> trySubmit(final Callable<T> task)
+	{
+		if (!getPermits().tryAcquire())
+		{
+			log.debug("no connection permit for concurrent paging");
+			return null;
+		}
+		// 配额由先抢到claimed的一方归还：任务开始执行时抢到则在结束时归还(取消时连接仍被占用到任务结束)；
+		// 取消时抢到则立即归还，之后即使FutureTask已经调用call也不再执行查询
+		final AtomicBoolean claimed = new AtomicBoolean();
+		FutureTask<T> future = new FutureTask<T>(new Callable<T>()
+		{
+			public T call() throws Exception
+			{
+				if (!claimed.compareAndSet(false, true))
+				{
+					return null;
+				}
+				try
+				{
+					return task.call();
+				} finally
+				{
+					permits.release();
+				}
+			}
+		})
+		{
+			@Override
+			protected void done()
+			{
+				if (claimed.compareAndSet(false, true))
+				{
+					permits.release();
+				}
+			}
+		};
+		try
+		{
+			getExecutor().execute(future);
+			return future;
+		} catch (RejectedExecutionException e)
+		{
+			// 被拒绝的任务不会执行，也不会被取消
+			permits.release();
+			log.debug("concurrent paging rejected", e);
+			return null;
+		}
+	}
+
+	public void destroy()
+	{
+		if (executor != null)
+		{
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * 允许并发查询占用的最大连接数
+	 * 
+	 * @return
+	 */
+	public int getMaxConnections()
+	{
+		if (maxConnections > 0)
+		{
+			return maxConnections;
+		}
+		return Math.max(1, maxPoolSize / 5);
+	}
+
+	private synchronized Semaphore getPermits()
+	{
+		if (permits == null)
+		{
+			permits = new Semaphore(getMaxConnections());
+		}
+		return permits;
+	}
+
+	private synchronized ThreadPoolExecutor getExecutor()
+	{
+		if (executor == null)
+		{
+			int threads = getMaxConnections();
+			executor = new ThreadPoolExecutor(threads, threads, 60,
+					TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+					new ThreadFactory()
+					{
+						private final AtomicInteger count = new AtomicInteger();
+
+						public Thread newThread(Runnable r)
+						{
+							Thread t = new Thread(r, "paging-executor-"
+									+ count.incrementAndGet());
+							t.setDaemon(true);
+							return t;
+						}
+					});
+			executor.allowCoreThreadTimeOut(true);
+		}
+		return executor;
+	}
+
+	private volatile Semaphore permits;
+	private ThreadPoolExecutor executor;
+
+	/**
+	 * 数据库连接池大小，对应cpool.maxPoolSize
+	 */
+	private int maxPoolSize = 50;
+	/**
+	 * 并发查询占用的最大连接数
+	 */
+	private int maxConnections = 0;
+
+	public void setMaxPoolSize(int maxPoolSize)
+	{
+		this.maxPoolSize = maxPoolSize;
+	}
+
+	public void setMaxConnections(int maxConnections)
+	{
+		this.maxConnections = maxConnections;
+	}
+}
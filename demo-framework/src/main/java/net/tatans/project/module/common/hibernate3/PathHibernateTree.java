@@ -0,0 +1,46 @@
+package net.tatans.project.module.common.hibernate3;
+
+/**
+ * 同时维护物化路径(Materialized Path)的HibernateTree。
+ * 
+ * 路径由所有祖先节点的ID组成，从根节点开始，以"/"分隔并结尾，不包括节点自己：根节点为"/"，
+ * 节点17(父节点为3)的路径为"/3/"，它的子节点的路径为"/3/17/"。
+ * 新增节点时路径由父节点确定，不需要等待节点自己的ID；移动节点时以一条update语句替换整棵子树的路径前缀。
+ * 子孙节点可以通过path like '/3/17/%'查询，路径字段上的普通索引即可覆盖；祖先节点的ID直接从路径中解析，不需要查询。
+ * 
+ * 与左右值一样，路径由TreeIntercptor维护，映射时应当设置update="false"。
+ * 
+ * @see HibernateTreeDao#getAncestors(HibernateTree)
+ * @see HibernateTreeDao#getDescendantsByPath(HibernateTree)
+ */
+public interface PathHibernateTree<T extends Number> extends HibernateTree<T> {
+	/**
+	 * 默认路径属性名称
+	 */
+	public static final String DEF_PATH_NAME = "path";
+	/**
+	 * 路径分隔符
+	 */
+	public static final String PATH_SEPARATOR = "/";
+
+	/**
+	 * 获得路径属性名称
+	 * 
+	 * @return
+	 */
+	public String getPathName();
+
+	/**
+	 * 获得路径
+	 * 
+	 * @return
+	 */
+	public String getPath();
+
+	/**
+	 * 设置路径
+	 * 
+	 * @param path
+	 */
+	public void setPath(String path);
+}
@@ -1,20 +1,20 @@
-package net.tatans.project.module.common.hibernate3;
-
-/**
- * 实体按优先级排序类的接口。用于hibernate的sort排序
- */
-public interface PriorityInterface {
-	/**
-	 * 获得优先级
-	 * 
-	 * @return
-	 */
-	public Number getPriority();
-
-	/**
-	 * 获得ID
-	 * 
-	 * @return
-	 */
-	public Number getId();
-}
+package net.tatans.project.module.common.hibernate3;
+
+/**
+ * 实体按优先级排序类的接口。用于hibernate的sort排序
+ */
+public interface PriorityInterface {
+	/**
+	 * 获得优先级
+	 * 
+	 * @return
+	 */
+	public Number getPriority();
+
+	/**
+	 * 获得ID
+	 * 
+	 * @return
+	 */
+	public Number getId();
+}
@@ -0,0 +1,28 @@
+package net.tatans.project.module.common.hibernate3;
+
+/**
+ * Project Name:demo-framework
+ * 
+ * Package:net.tatans.project.module.common.hibernate3
+ * 
+ * FileName:ScrollCallback.java
+ * 
+ *         Purpose: 流式查询的逐行回调，见HibernateSimpleDao.stream。
+ * 
+ *         Create Time: 2026年10月17日 下午3:20:14
+ * 
+ *         Version: 1.0
+ */
+public interface ScrollCallback
+{
+	/**
+	 * Purpose: 处理一行查询结果
+	 * 
+	 * @param row
+	 *            查询结果。只有一列时为该列的值，多列时为Object[]，与Query.list()的元素一致
+	 * @return 是否继续读取。返回false时立即结束查询
+	 * 
+	 *         Version: 1.0
+	 */
+	boolean process(Object row);
+}
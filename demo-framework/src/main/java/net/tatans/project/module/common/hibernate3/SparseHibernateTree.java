@@ -0,0 +1,27 @@
+package net.tatans.project.module.common.hibernate3;
+
+/**
+ * 稀疏编号的HibernateTree。
+ * 
+ * 左右值之间预留空隙，新增节点直接放入父节点最后一个子节点之后的空隙中，不需要平移其他节点；
+ * 空隙用完时才平移右边的节点，并在事务提交后按getTreeGap()重新均匀编号(rebalance)。
+ * 删除节点不回收位置。左右值不再连续，不能通过(rgt-lft-1)/2计算子孙节点数。
+ * 
+ * @see TreeIntercptor#rebalance(SparseHibernateTree)
+ */
+public interface SparseHibernateTree<T extends Number> extends HibernateTree<T> {
+	/**
+	 * 默认的左右值间隔
+	 */
+	public static final int DEF_TREE_GAP = 1024;
+
+	/**
+	 * 获得左右值间隔
+	 * 
+	 * 重新编号后相邻的左右值相差该间隔，新增根节点也使用该间隔。
+	 * 间隔越大，两次重新编号之间可以插入的节点越多，但节点总数上限越小(约Integer.MAX_VALUE/2/间隔)。
+	 * 
+	 * @return 不小于2
+	 */
+	public int getTreeGap();
+}
@@ -1,287 +1,371 @@
-package net.tatans.project.module.common.hibernate3;
-
-import java.io.Serializable;
-
-import org.apache.commons.lang.StringUtils;
-import org.hibernate.EmptyInterceptor;
-import org.hibernate.FlushMode;
-import org.hibernate.Session;
-import org.hibernate.SessionFactory;
-import org.hibernate.type.Type;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.springframework.beans.BeansException;
-import org.springframework.context.ApplicationContext;
-import org.springframework.context.ApplicationContextAware;
-
-@SuppressWarnings("serial")
-public class TreeIntercptor extends EmptyInterceptor implements
-		ApplicationContextAware {
-	private static final Logger log = LoggerFactory
-			.getLogger(TreeIntercptor.class);
-	private ApplicationContext appCtx;
-	private SessionFactory sessionFactory;
-	public static final String SESSION_FACTORY = "sessionFactory";
-
-	public void setApplicationContext(ApplicationContext appCtx)
-			throws BeansException {
-		this.appCtx = appCtx;
-	}
-
-	protected SessionFactory getSessionFactory() {
-		if (sessionFactory == null) {
-			sessionFactory = (SessionFactory) appCtx.getBean(SESSION_FACTORY,
-					SessionFactory.class);
-			if (sessionFactory == null) {
-				throw new IllegalStateException("not found bean named '"
-						+ SESSION_FACTORY
-						+ "',please check you spring config file.");
-			}
-		}
-		return sessionFactory;
-	}
-
-	protected Session getSession() {
-		return getSessionFactory().getCurrentSession();
-	}
-
-	@Override
-	public boolean onSave(Object entity, Serializable id, Object[] state,
-			String[] propertyNames, Type[] types) {
-		if (entity instanceof HibernateTree) {
-			HibernateTree<?> tree = (HibernateTree<?>) entity;
-			Number parentId = tree.getParentId();
-			String beanName = tree.getClass().getName();
-			Session session = getSession();
-			FlushMode model = session.getFlushMode();
-			session.setFlushMode(FlushMode.MANUAL);
-			Integer myPosition;
-			if (parentId != null) {
-				// 如果父节点不为null，则获取节点的右边位置
-				String hql = "select bean." + tree.getRgtName() + " from "
-						+ beanName + " bean where bean.id=:pid";
-				myPosition = ((Number) session.createQuery(hql).setParameter(
-						"pid", parentId).uniqueResult()).intValue();
-				String hql1 = "update " + beanName + " bean set bean."
-						+ tree.getRgtName() + " = bean." + tree.getRgtName()
-						+ " + 2 WHERE bean." + tree.getRgtName()
-						+ " >= :myPosition";
-				String hql2 = "update " + beanName + " bean set bean."
-						+ tree.getLftName() + " = bean." + tree.getLftName()
-						+ " + 2 WHERE bean." + tree.getLftName()
-						+ " >= :myPosition";
-				if (!StringUtils.isBlank(tree.getTreeCondition())) {
-					hql1 += " and (" + tree.getTreeCondition() + ")";
-					hql2 += " and (" + tree.getTreeCondition() + ")";
-				}
-				session.createQuery(hql1)
-						.setParameter("myPosition", myPosition).executeUpdate();
-				session.createQuery(hql2)
-						.setParameter("myPosition", myPosition).executeUpdate();
-			} else {
-				// 否则查找最大的右边位置
-				String hql = "select max(bean." + tree.getRgtName() + ") from "
-						+ beanName + " bean";
-				if (!StringUtils.isBlank(tree.getTreeCondition())) {
-					hql += " where " + tree.getTreeCondition();
-				}
-				Number myPositionNumber = (Number) session.createQuery(hql)
-						.uniqueResult();
-				// 如不存在，则为0
-				if (myPositionNumber == null) {
-					myPosition = 1;
-				} else {
-					myPosition = myPositionNumber.intValue() + 1;
-				}
-			}
-			session.setFlushMode(model);
-			for (int i = 0; i < propertyNames.length; i++) {
-				if (propertyNames[i].equals(tree.getLftName())) {
-					state[i] = myPosition;
-				}
-				if (propertyNames[i].equals(tree.getRgtName())) {
-					state[i] = myPosition + 1;
-				}
-			}
-			return true;
-		}
-		return false;
-	}
-
-	@Override
-	public boolean onFlushDirty(Object entity, Serializable id,
-			Object[] currentState, Object[] previousState,
-			String[] propertyNames, Type[] types) {
-		if (!(entity instanceof HibernateTree)) {
-			return false;
-		}
-		HibernateTree<?> tree = (HibernateTree<?>) entity;
-		for (int i = 0; i < propertyNames.length; i++) {
-			if (propertyNames[i].equals(tree.getParentName())) {
-				HibernateTree<?> preParent = (HibernateTree<?>) previousState[i];
-				HibernateTree<?> currParent = (HibernateTree<?>) currentState[i];
-				return updateParent(tree, preParent, currParent);
-			}
-		}
-		return false;
-	}
-
-	private boolean updateParent(HibernateTree<?> tree,
-			HibernateTree<?> preParent, HibernateTree<?> currParent) {
-		// 都为空、或都不为空且相等时，不作处理
-		if ((preParent == null && currParent == null)
-				|| (preParent != null && currParent != null && preParent
-						.getId().equals(currParent.getId()))) {
-			return false;
-		}
-		String beanName = tree.getClass().getName();
-		if (log.isDebugEnabled()) {
-			log.debug("update Tree {}, id={}, "
-					+ "pre-parent id={}, curr-parent id={}", new Object[] {
-					beanName, tree.getId(),
-					preParent == null ? null : preParent.getId(),
-					currParent == null ? null : currParent.getId() });
-		}
-		Session session = getSession();
-		// 保存刷新模式，并设置成手动刷新
-		FlushMode model = session.getFlushMode();
-		session.setFlushMode(FlushMode.MANUAL);
-		// 先空出位置。当前父节点存在时，才需要空出位置。
-		Integer currParentRgt;
-		if (currParent != null) {
-			// 获得节点跨度
-			String hql = "select bean." + tree.getLftName() + ",bean."
-					+ tree.getRgtName() + " from " + beanName
-					+ " bean where bean.id=:id";
-			Object[] position = (Object[]) session.createQuery(hql)
-					.setParameter("id", tree.getId()).uniqueResult();
-			int nodeLft = ((Number) position[0]).intValue();
-			int nodeRgt = ((Number) position[1]).intValue();
-			int span = nodeRgt - nodeLft + 1;
-			log.debug("current node span={}", span);
-
-			// 获得当前父节点右位置
-			Object[] currPosition = (Object[]) session.createQuery(hql)
-					.setParameter("id", currParent.getId()).uniqueResult();
-			int currParentLft = ((Number) currPosition[0]).intValue();
-			currParentRgt = ((Number) currPosition[1]).intValue();
-			log.debug("current parent lft={} rgt={}", currParentLft,
-					currParentRgt);
-
-			// 空出位置
-			String hql1 = "update " + beanName + " bean set bean."
-					+ tree.getRgtName() + " = bean." + tree.getRgtName()
-					+ " + " + span + " WHERE bean." + tree.getRgtName()
-					+ " >= :parentRgt";
-			String hql2 = "update " + beanName + " bean set bean."
-					+ tree.getLftName() + " = bean." + tree.getLftName()
-					+ " + " + span + " WHERE bean." + tree.getLftName()
-					+ " >= :parentRgt";
-			if (!StringUtils.isBlank(tree.getTreeCondition())) {
-				hql1 += " and (" + tree.getTreeCondition() + ")";
-				hql2 += " and (" + tree.getTreeCondition() + ")";
-			}
-			session.createQuery(hql1).setInteger("parentRgt", currParentRgt)
-					.executeUpdate();
-			session.createQuery(hql2).setInteger("parentRgt", currParentRgt)
-					.executeUpdate();
-			log.debug("vacated span hql: {}, {}, parentRgt={}", new Object[] {
-					hql1, hql2, currParentRgt });
-		} else {
-			// 否则查找最大的右边位置
-			String hql = "select max(bean." + tree.getRgtName() + ") from "
-					+ beanName + " bean";
-			if (!StringUtils.isBlank(tree.getTreeCondition())) {
-				hql += " where " + tree.getTreeCondition();
-			}
-			currParentRgt = ((Number) session.createQuery(hql).uniqueResult())
-					.intValue();
-			currParentRgt++;
-			log.debug("max node left={}", currParentRgt);
-		}
-
-		// 再调整自己
-		String hql = "select bean." + tree.getLftName() + ",bean."
-				+ tree.getRgtName() + " from " + beanName
-				+ " bean where bean.id=:id";
-		Object[] position = (Object[]) session.createQuery(hql).setParameter(
-				"id", tree.getId()).uniqueResult();
-		int nodeLft = ((Number) position[0]).intValue();
-		int nodeRgt = ((Number) position[1]).intValue();
-		int span = nodeRgt - nodeLft + 1;
-		if (log.isDebugEnabled()) {
-			log.debug("before adjust self left={} right={} span={}",
-					new Object[] { nodeLft, nodeRgt, span });
-		}
-		int offset = currParentRgt - nodeLft;
-		hql = "update " + beanName + " bean set bean." + tree.getLftName()
-				+ "=bean." + tree.getLftName() + "+:offset, bean."
-				+ tree.getRgtName() + "=bean." + tree.getRgtName()
-				+ "+:offset WHERE bean." + tree.getLftName()
-				+ " between :nodeLft and :nodeRgt";
-		if (!StringUtils.isBlank(tree.getTreeCondition())) {
-			hql += " and (" + tree.getTreeCondition() + ")";
-		}
-		session.createQuery(hql).setParameter("offset", offset).setParameter(
-				"nodeLft", nodeLft).setParameter("nodeRgt", nodeRgt)
-				.executeUpdate();
-		if (log.isDebugEnabled()) {
-			log.debug("adjust self hql: {}, offset={}, nodeLft={}, nodeRgt={}",
-					new Object[] { hql, offset, nodeLft, nodeRgt });
-		}
-
-		// 最后删除（清空位置）
-		String hql1 = "update " + beanName + " bean set bean."
-				+ tree.getRgtName() + " = bean." + tree.getRgtName() + " - "
-				+ span + " WHERE bean." + tree.getRgtName() + " > :nodeRgt";
-		String hql2 = "update " + beanName + " bean set bean."
-				+ tree.getLftName() + " = bean." + tree.getLftName() + " - "
-				+ span + " WHERE bean." + tree.getLftName() + " > :nodeRgt";
-		if (!StringUtils.isBlank(tree.getTreeCondition())) {
-			hql1 += " and (" + tree.getTreeCondition() + ")";
-			hql2 += " and (" + tree.getTreeCondition() + ")";
-		}
-		session.createQuery(hql1).setParameter("nodeRgt", nodeRgt)
-				.executeUpdate();
-		session.createQuery(hql2).setParameter("nodeRgt", nodeRgt)
-				.executeUpdate();
-		if (log.isDebugEnabled()) {
-			log.debug("clear span hql1:{}, hql2:{}, nodeRgt:{}", new Object[] {
-					hql1, hql2, nodeRgt });
-		}
-		session.setFlushMode(model);
-		return true;
-	}
-
-	@Override
-	public void onDelete(Object entity, Serializable id, Object[] state,
-			String[] propertyNames, Type[] types) {
-		if (entity instanceof HibernateTree) {
-			HibernateTree<?> tree = (HibernateTree<?>) entity;
-			String beanName = tree.getClass().getName();
-			Session session = getSession();
-			FlushMode model = session.getFlushMode();
-			session.setFlushMode(FlushMode.MANUAL);
-			String hql = "select bean." + tree.getLftName() + " from "
-					+ beanName + " bean where bean.id=:id";
-			Integer myPosition = ((Number) session.createQuery(hql)
-					.setParameter("id", tree.getId()).uniqueResult())
-					.intValue();
-			String hql1 = "update " + beanName + " bean set bean."
-					+ tree.getRgtName() + " = bean." + tree.getRgtName()
-					+ " - 2 WHERE bean." + tree.getRgtName() + " > :myPosition";
-			String hql2 = "update " + beanName + " bean set bean."
-					+ tree.getLftName() + " = bean." + tree.getLftName()
-					+ " - 2 WHERE bean." + tree.getLftName() + " > :myPosition";
-			if (!StringUtils.isBlank(tree.getTreeCondition())) {
-				hql1 += " and (" + tree.getTreeCondition() + ")";
-				hql2 += " and (" + tree.getTreeCondition() + ")";
-			}
-			session.createQuery(hql1).setInteger("myPosition", myPosition)
-					.executeUpdate();
-			session.createQuery(hql2).setInteger("myPosition", myPosition)
-					.executeUpdate();
-			session.setFlushMode(model);
-		}
-	}
-}
\ No newline at end of file
+package net.tatans.project.module.common.hibernate3;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+
+import javax.transaction.Synchronization;
+
+import org.hibernate.EmptyInterceptor;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.type.Type;
+import org.springframework.beans.BeansException;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
+
+@SuppressWarnings("serial")
+public class TreeIntercptor extends EmptyInterceptor implements
+		ApplicationContextAware {
+	private ApplicationContext appCtx;
+	private SessionFactory sessionFactory;
+	/**
+	 * 默认策略，维护HibernateTree
+	 */
+	private final NestedSetTreeStrategy nestedSet = new NestedSetTreeStrategy();
+	/**
+	 * 其他策略，优先于默认策略
+	 */
+	private List<TreeStrategy> strategies = new ArrayList<TreeStrategy>();
+	/**
+	 * 树快照缓存，为null时不维护快照
+	 */
+	private TreeSnapshotCache snapshotCache;
+	/**
+	 * 当前线程的事务中修改过的树，事务结束后再次失效快照
+	 */
+	private final ThreadLocal<Map<String, HibernateTree<?>>> modifiedTrees = new ThreadLocal<Map<String, HibernateTree<?>>>();
+	/**
+	 * 当前线程挂起的次数，大于0时不维护左右值
+	 */
+	private final ThreadLocal<int[]> suspended = new ThreadLocal<int[]>();
+	/**
+	 * 串行化同一棵树的修改
+	 */
+	private TreeMutationCoordinator coordinator = new TreeMutationCoordinator();
+	/**
+	 * 各事务中已经加锁的树，事务结束后释放。按hibernate事务区分，REQUIRES_NEW的内层事务不会释放外层事务的锁
+	 */
+	private final ConcurrentMap<Transaction, LockedTrees> lockedTrees = new ConcurrentHashMap<Transaction, LockedTrees>();
+	public static final String SESSION_FACTORY = "sessionFactory";
+
+	public void setApplicationContext(ApplicationContext appCtx)
+			throws BeansException {
+		this.appCtx = appCtx;
+	}
+
+	/**
+	 * 设置其他树结构的维护策略，例如ClosureTableStrategy。不支持的实体仍然由NestedSetTreeStrategy维护。
+	 * 
+	 * @param strategies
+	 */
+	public void setStrategies(List<TreeStrategy> strategies) {
+		this.strategies = strategies;
+	}
+
+	/**
+	 * 设置稀疏树重新编号的执行器，用于在后台重新编号
+	 * 
+	 * @param rebalanceExecutor
+	 */
+	public void setRebalanceExecutor(Executor rebalanceExecutor) {
+		nestedSet.setRebalanceExecutor(rebalanceExecutor);
+	}
+
+	/**
+	 * 设置是否在所有事务中推迟HibernateTree左右值的维护，提交前每棵树统一重建一次。修改树的事务必须由Spring管理
+	 * 
+	 * @param deferred
+	 * @see #defer()
+	 */
+	public void setDeferred(boolean deferred) {
+		nestedSet.setDeferred(deferred);
+	}
+
+	/**
+	 * 在当前Spring事务中推迟HibernateTree左右值的维护，事务结束后恢复。
+	 * 
+	 * 事务中的新增、移动、删除只记录修改过的树和节点，提交前每棵树通过TreeRebuilder读取一次父节点、批量写回变化的左右值，
+	 * 例如复制1000个节点的子树只需要几条语句，而不是每个节点平移一次。新增和移动的节点排在同级节点的最后，与不推迟时一致。
+	 * 推迟期间左右值不正确，不能用于查询；重建在Spring事务的beforeCommit中执行，失败时事务回滚。
+	 * REQUIRES_NEW的内层事务不受外层事务推迟的影响。
+	 * 
+	 * @throws IllegalStateException
+	 *             没有Spring管理的事务
+	 */
+	public void defer() {
+		nestedSet.defer();
+	}
+
+	/**
+	 * 设置树快照缓存，新增、移动、删除节点时使对应的快照失效
+	 * 
+	 * @param snapshotCache
+	 */
+	public void setSnapshotCache(TreeSnapshotCache snapshotCache) {
+		this.snapshotCache = snapshotCache;
+		nestedSet.setSnapshotCache(snapshotCache);
+	}
+
+	/**
+	 * 设置树修改的协调器，用于调整分段数和等待时间，或与其他组件共享
+	 * 
+	 * @param coordinator
+	 */
+	public void setCoordinator(TreeMutationCoordinator coordinator) {
+		this.coordinator = coordinator;
+		nestedSet.setCoordinator(coordinator);
+	}
+
+	protected SessionFactory getSessionFactory() {
+		if (sessionFactory == null) {
+			sessionFactory = (SessionFactory) appCtx.getBean(SESSION_FACTORY,
+					SessionFactory.class);
+			if (sessionFactory == null) {
+				throw new IllegalStateException("not found bean named '"
+						+ SESSION_FACTORY
+						+ "',please check you spring config file.");
+			}
+		}
+		return sessionFactory;
+	}
+
+	protected Session getSession() {
+		return getSessionFactory().getCurrentSession();
+	}
+
+	/**
+	 * 在当前线程中挂起树结构的维护，可以嵌套调用，必须与resume成对使用。
+	 * 
+	 * 挂起期间新增、移动、删除节点都不会调整左右值，新增节点的左右值保持实体中的值。用于批量导入，导入后通过TreeRebuilder重建左右值。
+	 * 
+	 * @see TreeRebuilder#rebuild(HibernateTree)
+	 */
+	public void suspend() {
+		int[] count = suspended.get();
+		if (count == null) {
+			count = new int[1];
+			suspended.set(count);
+		}
+		count[0]++;
+	}
+
+	/**
+	 * 恢复树结构的维护
+	 */
+	public void resume() {
+		int[] count = suspended.get();
+		if (count == null) {
+			throw new IllegalStateException("tree intercptor not suspended");
+		}
+		if (--count[0] == 0) {
+			suspended.remove();
+		}
+	}
+
+	/**
+	 * 当前线程是否挂起了树结构的维护
+	 * 
+	 * @return
+	 */
+	public boolean isSuspended() {
+		return suspended.get() != null;
+	}
+
+	/**
+	 * 获得实体对应的策略
+	 * 
+	 * @param entity
+	 * @return 不是树节点时返回null
+	 */
+	public TreeStrategy getStrategy(Object entity) {
+		for (TreeStrategy strategy : strategies) {
+			if (strategy.supports(entity)) {
+				return strategy;
+			}
+		}
+		return nestedSet.supports(entity) ? nestedSet : null;
+	}
+
+	@Override
+	public boolean onSave(Object entity, Serializable id, Object[] state,
+			String[] propertyNames, Type[] types) {
+		TreeStrategy strategy = getStrategy(entity);
+		if (strategy == null || isSuspended()) {
+			return false;
+		}
+		HibernateTreeNode<?> node = (HibernateTreeNode<?>) entity;
+		lockTree(node);
+		boolean modified = strategy.onSave(getSession(), node, state,
+				propertyNames);
+		invalidateSnapshot(node);
+		return modified;
+	}
+
+	@Override
+	public boolean onFlushDirty(Object entity, Serializable id,
+			Object[] currentState, Object[] previousState,
+			String[] propertyNames, Type[] types) {
+		TreeStrategy strategy = getStrategy(entity);
+		if (strategy == null || isSuspended()) {
+			return false;
+		}
+		HibernateTreeNode<?> node = (HibernateTreeNode<?>) entity;
+		for (int i = 0; i < propertyNames.length; i++) {
+			if (propertyNames[i].equals(node.getParentName())) {
+				HibernateTreeNode<?> preParent = (HibernateTreeNode<?>) previousState[i];
+				HibernateTreeNode<?> currParent = (HibernateTreeNode<?>) currentState[i];
+				// 都为空、或都不为空且相等时，不作处理
+				if ((preParent == null && currParent == null)
+						|| (preParent != null && currParent != null && preParent
+								.getId().equals(currParent.getId()))) {
+					return false;
+				}
+				lockTree(node);
+				boolean modified = strategy.onMove(getSession(), node,
+						preParent, currParent, currentState, propertyNames);
+				invalidateSnapshot(node);
+				return modified;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public void onDelete(Object entity, Serializable id, Object[] state,
+			String[] propertyNames, Type[] types) {
+		TreeStrategy strategy = getStrategy(entity);
+		if (strategy == null || isSuspended()) {
+			return;
+		}
+		HibernateTreeNode<?> node = (HibernateTreeNode<?>) entity;
+		lockTree(node);
+		invalidateSnapshot(node);
+		strategy.onDelete(getSession(), node);
+	}
+
+	@SuppressWarnings("rawtypes")
+	@Override
+	public void postFlush(Iterator entities) {
+		if (strategies.isEmpty()) {
+			return;
+		}
+		Session session = getSession();
+		for (TreeStrategy strategy : strategies) {
+			strategy.postFlush(session);
+		}
+	}
+
+	@Override
+	public void beforeTransactionCompletion(Transaction tx) {
+		if (strategies.isEmpty()) {
+			return;
+		}
+		Session session = getSession();
+		for (TreeStrategy strategy : strategies) {
+			strategy.beforeTransactionCompletion(session);
+		}
+	}
+
+	@Override
+	public void afterTransactionCompletion(Transaction tx) {
+		// 事务中可能有其他线程加载了修改前的快照，本线程也可能加载了未提交的快照
+		Map<String, HibernateTree<?>> modified = modifiedTrees.get();
+		if (modified != null) {
+			modifiedTrees.remove();
+			for (HibernateTree<?> tree : modified.values()) {
+				snapshotCache.invalidate(tree);
+			}
+		}
+		boolean committed = tx == null || tx.wasCommitted();
+		for (TreeStrategy strategy : strategies) {
+			strategy.afterTransactionCompletion(committed);
+		}
+		nestedSet.afterTransactionCompletion(committed);
+	}
+
+	/**
+	 * 重新均匀编号稀疏树
+	 * 
+	 * @param tree
+	 *            树中的任意节点，用于获得实体类和附加条件
+	 * @see NestedSetTreeStrategy#rebalance(SessionFactory, SparseHibernateTree)
+	 */
+	public void rebalance(SparseHibernateTree<?> tree) {
+		nestedSet.rebalance(getSessionFactory(), tree);
+	}
+
+	/**
+	 * 事务中第一次修改树时加锁，通过hibernate事务的Synchronization在事务结束后释放。
+	 * 没有事务时无法确定何时释放，直接抛出异常
+	 */
+	private void lockTree(HibernateTreeNode<?> node) {
+		Transaction tx = getSession().getTransaction();
+		if (!tx.isActive()) {
+			throw new IllegalStateException(
+					"tree node must be modified in a transaction: "
+							+ TreeMutationCoordinator.getKey(node));
+		}
+		LockedTrees trees = lockedTrees.get(tx);
+		if (trees == null) {
+			trees = new LockedTrees(tx);
+			tx.registerSynchronization(trees);
+			lockedTrees.put(tx, trees);
+		}
+		trees.lock(node);
+	}
+
+	/**
+	 * 使快照失效，并登记在事务结束后再次失效
+	 */
+	private void invalidateSnapshot(HibernateTreeNode<?> node) {
+		if (snapshotCache == null || !(node instanceof HibernateTree)) {
+			return;
+		}
+		HibernateTree<?> tree = (HibernateTree<?>) node;
+		snapshotCache.invalidate(tree);
+		Map<String, HibernateTree<?>> trees = modifiedTrees.get();
+		if (trees == null) {
+			trees = new HashMap<String, HibernateTree<?>>();
+			modifiedTrees.set(trees);
+		}
+		trees.put(TreeSnapshotCache.getKey(tree), tree);
+	}
+
+	/**
+	 * 一个事务中已经加锁的树
+	 */
+	private final class LockedTrees implements Synchronization {
+		private final Transaction tx;
+		private final Map<String, HibernateTreeNode<?>> nodes = new HashMap<String, HibernateTreeNode<?>>();
+
+		private LockedTrees(Transaction tx) {
+			this.tx = tx;
+		}
+
+		private void lock(HibernateTreeNode<?> node) {
+			String key = TreeMutationCoordinator.getKey(node);
+			if (!nodes.containsKey(key)) {
+				coordinator.lock(node);
+				nodes.put(key, node);
+			}
+		}
+
+		public void beforeCompletion() {
+		}
+
+		public void afterCompletion(int status) {
+			lockedTrees.remove(tx);
+			for (HibernateTreeNode<?> node : nodes.values()) {
+				coordinator.unlock(node);
+			}
+		}
+	}
+}
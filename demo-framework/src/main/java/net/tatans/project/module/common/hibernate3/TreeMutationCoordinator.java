@@ -0,0 +1,164 @@
+package net.tatans.project.module.common.hibernate3;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.CannotAcquireLockException;
+
+/**
+ * Project Name:demo-framework
+ * 
+ * Package:net.tatans.project.module.common.hibernate3
+ * 
+ * FileName:TreeMutationCoordinator.java
+ * 
+ *         Purpose: 串行化同一棵树的结构修改。<br>
+ *         按实体类和getTreeCondition()分段加锁：同一棵树的修改依次执行，不同的树(例如不同站点的栏目)仍然可以并行；
+ *         两棵树落在同一段时也会串行，段数越多冲突越少。
+ *         TreeIntercptor在事务中第一次修改某棵树时加锁，事务结束后释放，
+ *         避免多个事务的范围update交错执行，导致InnoDB死锁或左右值错乱。
+ *         等待超过timeout时抛出CannotAcquireLockException，由事务回滚解除可能的死锁。
+ *         锁只在当前JVM内有效，多个应用实例同时修改同一棵树时仍然需要数据库锁。
+ * 
+ *         Create Time: 2026年10月18日 上午0:25:10
+ * 
+ *         Version: 1.0
+ */
+public class TreeMutationCoordinator {
+	private static final Logger log = LoggerFactory
+			.getLogger(TreeMutationCoordinator.class);
+
+	/**
+	 * 默认分段数
+	 */
+	public static final int DEF_STRIPES = 64;
+	/**
+	 * 默认等待时间(毫秒)
+	 */
+	public static final long DEF_TIMEOUT = 30000;
+
+	public TreeMutationCoordinator() {
+		this(DEF_STRIPES);
+	}
+
+	public TreeMutationCoordinator(int stripes) {
+		if (stripes < 1) {
+			throw new IllegalArgumentException("stripes must be positive: "
+					+ stripes);
+		}
+		locks = new ReentrantLock[stripes];
+		for (int i = 0; i < stripes; i++) {
+			locks[i] = new ReentrantLock();
+		}
+	}
+
+	/**
+	 * Purpose: 获得节点所在树的锁，可重入，必须与unlock成对调用
+	 * 
+	 * @param tree
+	 *            树中的任意节点，用于获得实体类和附加条件
+	 * @throws CannotAcquireLockException
+	 *             等待超时或线程被中断
+	 * 
+	 *         Version: 1.0
+	 */
+	public void lock(HibernateTreeNode<?> tree) {
+		String key = getKey(tree);
+		ReentrantLock lock = getLock(key);
+		try {
+			if (lock.tryLock()
+					|| lock.tryLock(timeout, TimeUnit.MILLISECONDS)) {
+				return;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CannotAcquireLockException(
+					"interrupted while waiting for tree lock: " + key, e);
+		}
+		throw new CannotAcquireLockException("timeout waiting for tree lock: "
+				+ key);
+	}
+
+	/**
+	 * Purpose: 释放节点所在树的锁
+	 * 
+	 * @param tree
+	 * 
+	 *         Version: 1.0
+	 */
+	public void unlock(HibernateTreeNode<?> tree) {
+		getLock(getKey(tree)).unlock();
+	}
+
+	/**
+	 * Purpose: 合并执行。同一棵树已有排队但尚未开始的任务时，不再提交新的任务，例如多个事务都需要重新编号同一棵树。
+	 * 任务开始前获得树的锁，任务开始后再提交的任务会重新排队。
+	 * 
+	 * @param tree
+	 *            树中的任意节点，用于获得实体类和附加条件
+	 * @param executor
+	 * @param task
+	 * @return 是否提交了任务
+	 * 
+	 *         Version: 1.0
+	 */
+	public boolean coalesce(final HibernateTreeNode<?> tree, Executor executor,
+			final Runnable task) {
+		final String key = getKey(tree);
+		if (queued.putIfAbsent(key, Boolean.TRUE) != null) {
+			log.debug("tree task already queued: {}", key);
+			return false;
+		}
+		try {
+			executor.execute(new Runnable() {
+				public void run() {
+					queued.remove(key);
+					lock(tree);
+					try {
+						task.run();
+					} finally {
+						unlock(tree);
+					}
+				}
+			});
+		} catch (RuntimeException e) {
+			queued.remove(key);
+			throw e;
+		}
+		return true;
+	}
+
+	/**
+	 * 锁的key：实体类名和附加条件
+	 */
+	static String getKey(HibernateTreeNode<?> tree) {
+		return Hibernate.getClass(tree).getName() + ":"
+				+ tree.getTreeCondition();
+	}
+
+	private ReentrantLock getLock(String key) {
+		// 与HashMap相同的扰动，避免hashCode低位相同的key落在同一段
+		int h = key.hashCode();
+		h ^= (h >>> 20) ^ (h >>> 12);
+		h ^= (h >>> 7) ^ (h >>> 4);
+		return locks[(h & 0x7fffffff) % locks.length];
+	}
+
+	private final ReentrantLock[] locks;
+	private final ConcurrentMap<String, Boolean> queued = new ConcurrentHashMap<String, Boolean>();
+
+	/**
+	 * 等待锁的时间(毫秒)
+	 */
+	private long timeout = DEF_TIMEOUT;
+
+	public void setTimeout(long timeout) {
+		this.timeout = timeout;
+	}
+}
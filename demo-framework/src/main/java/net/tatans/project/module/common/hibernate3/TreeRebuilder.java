@@ -0,0 +1,411 @@
+package net.tatans.project.module.common.hibernate3;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+import org.apache.commons.lang.StringUtils;
+import org.hibernate.Hibernate;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.SessionFactoryImplementor;
+import org.hibernate.jdbc.Work;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Project Name:demo-framework
+ * 
+ * Package:net.tatans.project.module.common.hibernate3
+ * 
+ * FileName:TreeRebuilder.java
+ * 
+ *         Purpose: 根据父节点重新计算HibernateTree的左右值。<br>
+ *         流式读取(id, 父节点id)，在内存中一次深度优先遍历计算左右值，只把变化的节点以JDBC批量方式写回，
+ *         复杂度O(n)，不会像逐个保存节点那样每次平移右边的节点。同级节点保持原来的左值顺序(相同时按id)。
+ *         用于导入或修复树，例如：
+ * 
+ *         <pre>
+ * treeIntercptor.suspend();
+ * try {
+ * 	for (Channel c : channels) {
+ * 		session.save(c);
+ * 	}
+ * 	session.flush();
+ * } finally {
+ * 	treeIntercptor.resume();
+ * }
+ * treeRebuilder.rebuild(channels.get(0));
+ * </pre>
+ * 
+ *         重建在当前session中执行，写入前查询缓存预先失效，事务结束后清除二级缓存和查询缓存，但当前session中已加载的节点左右值不会更新。
+ *         SparseHibernateTree按getTreeGap()间隔编号，其他树编号为1到2n。PathHibernateTree同时重建路径。
+ * 
+ *         Create Time: 2026年10月17日 下午11:48:05
+ * 
+ *         Version: 1.0
+ */
+public class TreeRebuilder {
+	private static final Logger log = LoggerFactory
+			.getLogger(TreeRebuilder.class);
+
+	public static final int DEF_BATCH_SIZE = 100;
+	public static final int DEF_FETCH_SIZE = 1000;
+
+	/**
+	 * Purpose: 在当前session中重建节点所在的树
+	 * 
+	 * @param tree
+	 *            树中的任意节点，用于获得实体类和附加条件
+	 * @return 左右值发生变化的节点数
+	 * 
+	 *         Version: 1.0
+	 */
+	public int rebuild(HibernateTree<?> tree) {
+		Session session = sessionFactory.getCurrentSession();
+		session.flush();
+		return rebuild(session, tree);
+	}
+
+	/**
+	 * Purpose: 在指定session中重建节点所在的树
+	 * 
+	 * @param session
+	 * @param tree
+	 *            树中的任意节点，用于获得实体类和附加条件
+	 * @return 左右值发生变化的节点数
+	 * 
+	 *         Version: 1.0
+	 */
+	public int rebuild(Session session, HibernateTree<?> tree) {
+		return rebuild(session, tree, Collections.<Number> emptyList());
+	}
+
+	/**
+	 * Purpose: 在指定session中重建节点所在的树，指定的节点排在同级节点的最后，
+	 * 与逐个新增或移动节点的结果一致
+	 * 
+	 * @param session
+	 * @param tree
+	 *            树中的任意节点，用于获得实体类和附加条件
+	 * @param lastIds
+	 *            排在同级节点最后的节点id，按集合的顺序排列，不在树中的id忽略
+	 * @return 左右值发生变化的节点数
+	 * 
+	 *         Version: 1.0
+	 */
+	public int rebuild(Session session, HibernateTree<?> tree,
+			Collection<? extends Number> lastIds) {
+		long gap = 1;
+		if (tree instanceof SparseHibernateTree) {
+			gap = Math.max(2, ((SparseHibernateTree<?>) tree).getTreeGap());
+		}
+		Nodes nodes = load(session, tree);
+		Numbering numbering = number(nodes, gap, lastIds,
+				getEntityName(tree));
+		int changed = write(session, tree, nodes, numbering.lfts,
+				numbering.rgts, numbering.paths);
+		log.info("rebuild tree {}, nodes={}, changed={}", new Object[] {
+				getEntityName(tree), nodes.size, changed });
+		return changed;
+	}
+
+	/**
+	 * 按父节点在内存中计算左右值和路径，不访问数据库
+	 * 
+	 * @param nodes
+	 *            按左值、id顺序读取的节点
+	 * @param gap
+	 *            相邻左右值的间隔
+	 * @param lastIds
+	 *            排在同级节点最后的节点id
+	 * @param treeName
+	 *            用于异常信息
+	 * @return
+	 */
+	static Numbering number(Nodes nodes, long gap,
+			Collection<? extends Number> lastIds, String treeName) {
+		int n = nodes.size;
+		// 同级节点按读取顺序(左值、id)链接，virtual根节点下标为n
+		int[] firstChild = new int[n + 1];
+		int[] lastChild = new int[n + 1];
+		int[] nextSibling = new int[n];
+		Arrays.fill(firstChild, -1);
+		Arrays.fill(nextSibling, -1);
+		long[] sortedIds = Arrays.copyOf(nodes.ids, n);
+		Arrays.sort(sortedIds);
+		int[] indexes = new int[n];
+		for (int i = 0; i < n; i++) {
+			indexes[Arrays.binarySearch(sortedIds, nodes.ids[i])] = i;
+		}
+		// 先链接其他节点，再按顺序链接排在最后的节点
+		boolean[] last = new boolean[n];
+		int[] order = new int[n];
+		int size = 0;
+		for (Number id : lastIds) {
+			int p = Arrays.binarySearch(sortedIds, id.longValue());
+			if (p >= 0 && !last[indexes[p]]) {
+				last[indexes[p]] = true;
+				order[size++] = indexes[p];
+			}
+		}
+		int tail = size;
+		for (int i = 0; i < n; i++) {
+			if (!last[i]) {
+				order[size++] = i;
+			}
+		}
+		for (int k = 0; k < n; k++) {
+			int i = order[(k + tail) % n];
+			int parent = n;
+			if (nodes.hasParent[i]) {
+				int p = Arrays.binarySearch(sortedIds, nodes.parentIds[i]);
+				if (p >= 0) {
+					parent = indexes[p];
+				} else {
+					log.warn("parent {} of node {} not in tree, treat as root",
+							nodes.parentIds[i], nodes.ids[i]);
+				}
+			}
+			if (firstChild[parent] == -1) {
+				firstChild[parent] = i;
+			} else {
+				nextSibling[lastChild[parent]] = i;
+			}
+			lastChild[parent] = i;
+		}
+		// 非递归深度优先遍历，cursor为下一个要访问的子节点
+		int[] lfts = new int[n];
+		int[] rgts = new int[n];
+		String[] paths = nodes.paths == null ? null : new String[n];
+		int[] stack = new int[n + 1];
+		int[] cursor = new int[n + 1];
+		int top = 0;
+		stack[0] = n;
+		cursor[n] = firstChild[n];
+		long counter = 0;
+		int visited = 0;
+		while (top >= 0) {
+			int node = stack[top];
+			int child = cursor[node];
+			if (child != -1) {
+				cursor[node] = nextSibling[child];
+				counter += gap;
+				lfts[child] = (int) counter;
+				if (paths != null) {
+					paths[child] = node == n ? PathHibernateTree.PATH_SEPARATOR
+							: paths[node] + nodes.ids[node]
+									+ PathHibernateTree.PATH_SEPARATOR;
+				}
+				cursor[child] = firstChild[child];
+				stack[++top] = child;
+				visited++;
+			} else {
+				if (node != n) {
+					counter += gap;
+					rgts[node] = (int) counter;
+				}
+				top--;
+			}
+			if (counter > Integer.MAX_VALUE) {
+				throw new IllegalStateException("too many nodes for tree gap "
+						+ gap + ": " + n);
+			}
+		}
+		if (visited != n) {
+			throw new IllegalStateException("parent cycle in tree "
+					+ treeName + ": " + (n - visited)
+					+ " nodes unreachable from roots");
+		}
+		return new Numbering(lfts, rgts, paths);
+	}
+
+	/**
+	 * 按左值、id顺序流式读取节点
+	 */
+	private Nodes load(Session session, HibernateTree<?> tree) {
+		boolean withPath = tree instanceof PathHibernateTree;
+		String hql = "select bean.id, bean." + tree.getParentName()
+				+ ".id, bean." + tree.getLftName() + ", bean."
+				+ tree.getRgtName();
+		if (withPath) {
+			hql += ", bean." + ((PathHibernateTree<?>) tree).getPathName();
+		}
+		hql += " from " + getEntityName(tree) + " bean";
+		if (!StringUtils.isBlank(tree.getTreeCondition())) {
+			hql += " where " + tree.getTreeCondition();
+		}
+		hql += " order by bean." + tree.getLftName() + ", bean.id";
+		Nodes nodes = new Nodes(withPath);
+		ScrollableResults results = session.createQuery(hql).setReadOnly(true)
+				.setFetchSize(DEF_FETCH_SIZE).scroll(ScrollMode.FORWARD_ONLY);
+		try {
+			while (results.next()) {
+				nodes.add((Number) results.get(0), (Number) results.get(1),
+						(Number) results.get(2), (Number) results.get(3),
+						withPath ? (String) results.get(4) : null);
+			}
+		} finally {
+			results.close();
+		}
+		return nodes;
+	}
+
+	/**
+	 * 只写入左右值或路径变化的节点，写入前预先使查询缓存失效，事务结束后清除二级缓存、查询缓存和快照
+	 */
+	private int write(Session session, HibernateTree<?> tree,
+			final Nodes nodes, final int[] lfts, final int[] rgts,
+			final String[] paths) {
+		final SessionFactoryImplementor factory = (SessionFactoryImplementor) session
+				.getSessionFactory();
+		AbstractEntityPersister persister = (AbstractEntityPersister) factory
+				.getEntityPersister(getEntityName(tree));
+		String columns = persister.getPropertyColumnNames(tree.getLftName())[0]
+				+ "=?, "
+				+ persister.getPropertyColumnNames(tree.getRgtName())[0]
+				+ "=?";
+		if (paths != null) {
+			columns += ", "
+					+ persister
+							.getPropertyColumnNames(((PathHibernateTree<?>) tree)
+									.getPathName())[0] + "=?";
+		}
+		final String sql = "update " + persister.getTableName() + " set "
+				+ columns + " where " + persister.getIdentifierColumnNames()[0]
+				+ "=?";
+		final int batchSize = factory.getSettings().getJdbcBatchSize() > 0 ? factory
+				.getSettings().getJdbcBatchSize()
+				: DEF_BATCH_SIZE;
+		final int[] count = new int[1];
+		// 直接通过JDBC更新，事务结束后清除二级缓存、查询缓存和快照
+		BulkCacheCleanup cleanup = BulkCacheCleanup.begin(session, persister);
+		try {
+			session.doWork(new Work() {
+				public void execute(Connection connection) throws SQLException {
+					PreparedStatement ps = connection.prepareStatement(sql);
+					try {
+						for (int i = 0; i < nodes.size; i++) {
+							if (lfts[i] == nodes.lfts[i]
+									&& rgts[i] == nodes.rgts[i]
+									&& (paths == null || paths[i]
+											.equals(nodes.paths[i]))) {
+								continue;
+							}
+							int index = 1;
+							ps.setInt(index++, lfts[i]);
+							ps.setInt(index++, rgts[i]);
+							if (paths != null) {
+								ps.setString(index++, paths[i]);
+							}
+							ps.setLong(index, nodes.ids[i]);
+							ps.addBatch();
+							if (++count[0] % batchSize == 0) {
+								ps.executeBatch();
+							}
+						}
+						if (count[0] % batchSize != 0) {
+							ps.executeBatch();
+						}
+					} finally {
+						ps.close();
+					}
+				}
+			});
+		} finally {
+			if (snapshotCache != null) {
+				cleanup.invalidateSnapshot(snapshotCache, tree);
+			}
+			cleanup.end();
+		}
+		return count[0];
+	}
+
+	private static String getEntityName(HibernateTree<?> tree) {
+		return Hibernate.getClass(tree).getName();
+	}
+
+	/**
+	 * 读取的节点，按左值、id顺序。左右值为null时记为0，不是PathHibernateTree时paths为null
+	 */
+	static final class Nodes {
+		private long[] ids = new long[1024];
+		private long[] parentIds = new long[1024];
+		private boolean[] hasParent = new boolean[1024];
+		private int[] lfts = new int[1024];
+		private int[] rgts = new int[1024];
+		private String[] paths;
+		private int size;
+
+		Nodes(boolean withPath) {
+			if (withPath) {
+				paths = new String[1024];
+			}
+		}
+
+		void add(Number id, Number parentId, Number lft, Number rgt,
+				String path) {
+			if (size == ids.length) {
+				int capacity = size * 2;
+				ids = Arrays.copyOf(ids, capacity);
+				parentIds = Arrays.copyOf(parentIds, capacity);
+				hasParent = Arrays.copyOf(hasParent, capacity);
+				lfts = Arrays.copyOf(lfts, capacity);
+				rgts = Arrays.copyOf(rgts, capacity);
+				if (paths != null) {
+					paths = Arrays.copyOf(paths, capacity);
+				}
+			}
+			if (paths != null) {
+				paths[size] = path;
+			}
+			ids[size] = id.longValue();
+			if (parentId != null) {
+				parentIds[size] = parentId.longValue();
+				hasParent[size] = true;
+			}
+			lfts[size] = lft == null ? 0 : lft.intValue();
+			rgts[size] = rgt == null ? 0 : rgt.intValue();
+			size++;
+		}
+	}
+
+	/**
+	 * 计算出的左右值和路径，与Nodes的顺序一致
+	 */
+	static final class Numbering {
+		final int[] lfts;
+		final int[] rgts;
+		final String[] paths;
+
+		private Numbering(int[] lfts, int[] rgts, String[] paths) {
+			this.lfts = lfts;
+			this.rgts = rgts;
+			this.paths = paths;
+		}
+	}
+
+	private SessionFactory sessionFactory;
+	private TreeSnapshotCache snapshotCache;
+
+	@Autowired
+	public void setSessionFactory(SessionFactory sessionFactory) {
+		this.sessionFactory = sessionFactory;
+	}
+
+	/**
+	 * 设置树快照缓存，重建的事务结束后使对应的快照失效
+	 * 
+	 * @param snapshotCache
+	 */
+	public void setSnapshotCache(TreeSnapshotCache snapshotCache) {
+		this.snapshotCache = snapshotCache;
+	}
+}
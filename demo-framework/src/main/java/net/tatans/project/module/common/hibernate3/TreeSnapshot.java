@@ -0,0 +1,271 @@
+package net.tatans.project.module.common.hibernate3;
+
+import java.util.Arrays;
+
+/**
+ * Project Name:demo-framework
+ * 
+ * Package:net.tatans.project.module.common.hibernate3
+ * 
+ * FileName:TreeSnapshot.java
+ * 
+ *         Purpose: HibernateTree某一棵树(实体类和附加条件)在某一时刻的只读快照。<br>
+ *         节点按左值顺序保存在id/lft/rgt/parent/depth几个平行的int数组中，
+ *         子孙节点、祖先路径、子节点和深度都在内存中计算，不执行sql，也不产生装箱对象。
+ *         子孙节点在左值顺序中是连续的一段，可以直接按数组区间返回。
+ *         快照不可变，可以在多线程中共享；由TreeSnapshotCache加载和失效。
+ * 
+ *         Create Time: 2026年10月17日 下午11:02:15
+ * 
+ *         Version: 1.0
+ */
+public final class TreeSnapshot {
+	/**
+	 * 没有父节点，或节点不存在
+	 */
+	public static final int NONE = -1;
+
+	private static final int[] EMPTY = new int[0];
+
+	/**
+	 * Purpose: 创建快照
+	 * 
+	 * @param ids
+	 *            节点ID
+	 * @param lfts
+	 *            节点左值，必须按升序排列
+	 * @param rgts
+	 *            节点右值
+	 * @return
+	 * 
+	 *         Version: 1.0
+	 */
+	public static TreeSnapshot build(int[] ids, int[] lfts, int[] rgts) {
+		if (ids.length != lfts.length || ids.length != rgts.length) {
+			throw new IllegalArgumentException("arrays length not equals");
+		}
+		int size = ids.length;
+		int[] parents = new int[size];
+		int[] depths = new int[size];
+		// 按左值顺序遍历，栈中为尚未结束的祖先节点
+		int[] stack = new int[size];
+		int top = 0;
+		for (int i = 0; i < size; i++) {
+			if (i > 0 && lfts[i] <= lfts[i - 1]) {
+				throw new IllegalArgumentException("lft not in ascending order: "
+						+ ids[i]);
+			}
+			while (top > 0 && rgts[stack[top - 1]] < lfts[i]) {
+				top--;
+			}
+			parents[i] = top > 0 ? stack[top - 1] : NONE;
+			depths[i] = top;
+			stack[top++] = i;
+		}
+		// id到下标的索引：按id排序，二分查找
+		int[] sortedIds = ids.clone();
+		Arrays.sort(sortedIds);
+		int[] indexes = new int[size];
+		for (int i = 0; i < size; i++) {
+			indexes[Arrays.binarySearch(sortedIds, ids[i])] = i;
+		}
+		return new TreeSnapshot(ids.clone(), lfts.clone(), rgts.clone(),
+				parents, depths, sortedIds, indexes);
+	}
+
+	private TreeSnapshot(int[] ids, int[] lfts, int[] rgts, int[] parents,
+			int[] depths, int[] sortedIds, int[] indexes) {
+		this.ids = ids;
+		this.lfts = lfts;
+		this.rgts = rgts;
+		this.parents = parents;
+		this.depths = depths;
+		this.sortedIds = sortedIds;
+		this.indexes = indexes;
+	}
+
+	/**
+	 * 节点总数
+	 * 
+	 * @return
+	 */
+	public int size() {
+		return ids.length;
+	}
+
+	/**
+	 * 是否包含节点
+	 * 
+	 * @param id
+	 * @return
+	 */
+	public boolean contains(int id) {
+		return indexOf(id) != NONE;
+	}
+
+	/**
+	 * 获得节点深度，根节点为0
+	 * 
+	 * @param id
+	 * @return 节点不存在时返回NONE
+	 */
+	public int getDepth(int id) {
+		int index = indexOf(id);
+		return index == NONE ? NONE : depths[index];
+	}
+
+	/**
+	 * 获得父节点ID
+	 * 
+	 * @param id
+	 * @return 根节点或节点不存在时返回NONE
+	 */
+	public int getParentId(int id) {
+		int index = indexOf(id);
+		if (index == NONE || parents[index] == NONE) {
+			return NONE;
+		}
+		return ids[parents[index]];
+	}
+
+	/**
+	 * 获得祖先节点ID，从根节点开始，不包括节点自己
+	 * 
+	 * @param id
+	 * @return
+	 */
+	public int[] getAncestorIds(int id) {
+		int index = indexOf(id);
+		if (index == NONE) {
+			return EMPTY;
+		}
+		int[] result = new int[depths[index]];
+		for (int i = result.length - 1; i >= 0; i--) {
+			index = parents[index];
+			result[i] = ids[index];
+		}
+		return result;
+	}
+
+	/**
+	 * 获得子节点ID，按左值顺序
+	 * 
+	 * @param id
+	 * @return
+	 */
+	public int[] getChildIds(int id) {
+		int index = indexOf(id);
+		if (index == NONE) {
+			return EMPTY;
+		}
+		int end = subtreeEnd(index);
+		int count = 0;
+		for (int i = index + 1; i < end; i = subtreeEnd(i)) {
+			count++;
+		}
+		int[] result = new int[count];
+		count = 0;
+		for (int i = index + 1; i < end; i = subtreeEnd(i)) {
+			result[count++] = ids[i];
+		}
+		return result;
+	}
+
+	/**
+	 * 获得根节点ID，按左值顺序
+	 * 
+	 * @return
+	 */
+	public int[] getRootIds() {
+		int count = 0;
+		for (int i = 0; i < ids.length; i = subtreeEnd(i)) {
+			count++;
+		}
+		int[] result = new int[count];
+		count = 0;
+		for (int i = 0; i < ids.length; i = subtreeEnd(i)) {
+			result[count++] = ids[i];
+		}
+		return result;
+	}
+
+	/**
+	 * 获得子孙节点ID，按左值顺序，不包括节点自己
+	 * 
+	 * @param id
+	 * @return
+	 */
+	public int[] getDescendantIds(int id) {
+		int index = indexOf(id);
+		if (index == NONE) {
+			return EMPTY;
+		}
+		return Arrays.copyOfRange(ids, index + 1, subtreeEnd(index));
+	}
+
+	/**
+	 * 获得子孙节点数
+	 * 
+	 * @param id
+	 * @return
+	 */
+	public int getDescendantCount(int id) {
+		int index = indexOf(id);
+		return index == NONE ? 0 : subtreeEnd(index) - index - 1;
+	}
+
+	/**
+	 * 是否为子孙节点
+	 * 
+	 * @param ancestorId
+	 *            祖先节点ID
+	 * @param id
+	 *            节点ID
+	 * @return 节点自己返回false
+	 */
+	public boolean isDescendant(int ancestorId, int id) {
+		int ancestor = indexOf(ancestorId);
+		int index = indexOf(id);
+		if (ancestor == NONE || index == NONE) {
+			return false;
+		}
+		return lfts[ancestor] < lfts[index] && rgts[index] < rgts[ancestor];
+	}
+
+	/**
+	 * 子树结束位置(不包含)：第一个左值大于节点右值的下标
+	 */
+	private int subtreeEnd(int index) {
+		int rgt = rgts[index];
+		int low = index + 1;
+		int high = lfts.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (lfts[mid] < rgt) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	private int indexOf(int id) {
+		int i = Arrays.binarySearch(sortedIds, id);
+		return i < 0 ? NONE : indexes[i];
+	}
+
+	/**
+	 * 以下数组按左值顺序，parents为父节点的下标
+	 */
+	private final int[] ids;
+	private final int[] lfts;
+	private final int[] rgts;
+	private final int[] parents;
+	private final int[] depths;
+	/**
+	 * 排序后的id，以及对应的下标
+	 */
+	private final int[] sortedIds;
+	private final int[] indexes;
+}
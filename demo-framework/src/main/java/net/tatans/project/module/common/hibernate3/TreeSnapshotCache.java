@@ -0,0 +1,153 @@
+package net.tatans.project.module.common.hibernate3;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang.StringUtils;
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Project Name:demo-framework
+ * 
+ * Package:net.tatans.project.module.common.hibernate3
+ * 
+ * FileName:TreeSnapshotCache.java
+ * 
+ *         Purpose: HibernateTree快照缓存。<br>
+ *         按实体类和getTreeCondition()缓存TreeSnapshot，第一次使用时用一条查询加载整棵树。
+ *         设置到TreeIntercptor后，新增、移动、删除节点时以及事务结束后自动失效；
+ *         通过hql或jdbc直接修改左右值时，需要调用invalidate手动失效。
+ *         节点ID必须在int范围内。
+ * 
+ *         Create Time: 2026年10月17日 下午11:20:40
+ * 
+ *         Version: 1.0
+ */
+public class TreeSnapshotCache {
+	private static final Logger log = LoggerFactory
+			.getLogger(TreeSnapshotCache.class);
+
+	/**
+	 * Purpose: 获得节点所在树的快照
+	 * 
+	 * @param tree
+	 *            树中的任意节点，用于获得实体类和附加条件
+	 * @return
+	 * 
+	 *         Version: 1.0
+	 */
+	public TreeSnapshot get(HibernateTree<?> tree) {
+		String key = getKey(tree);
+		TreeSnapshot snapshot = cache.get(key);
+		if (snapshot == null) {
+			// 加载期间如果有失效，加载的结果可能已经过时，不放入缓存
+			AtomicLong version = getVersion(key);
+			long before = version.get();
+			snapshot = load(tree);
+			if (version.get() == before) {
+				cache.put(key, snapshot);
+				// 检查与放入之间发生的失效可能先于放入删除，放入后再检查一次
+				if (version.get() != before) {
+					cache.remove(key, snapshot);
+				}
+			}
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Purpose: 使节点所在树的快照失效
+	 * 
+	 * @param tree
+	 * 
+	 *         Version: 1.0
+	 */
+	public void invalidate(HibernateTree<?> tree) {
+		String key = getKey(tree);
+		getVersion(key).incrementAndGet();
+		if (cache.remove(key) != null) {
+			log.debug("tree snapshot invalidated: {}", key);
+		}
+	}
+
+	/**
+	 * 清空缓存
+	 */
+	public void clear() {
+		// 正在加载的树在加载前已经登记版本，都会被加1
+		for (AtomicLong version : versions.values()) {
+			version.incrementAndGet();
+		}
+		cache.clear();
+	}
+
+	private AtomicLong getVersion(String key) {
+		AtomicLong version = versions.get(key);
+		if (version == null) {
+			version = new AtomicLong();
+			AtomicLong exist = versions.putIfAbsent(key, version);
+			if (exist != null) {
+				version = exist;
+			}
+		}
+		return version;
+	}
+
+	/**
+	 * 缓存key：实体类名和附加条件
+	 */
+	static String getKey(HibernateTree<?> tree) {
+		return Hibernate.getClass(tree).getName() + ":"
+				+ tree.getTreeCondition();
+	}
+
+	@SuppressWarnings("unchecked")
+	private TreeSnapshot load(HibernateTree<?> tree) {
+		String hql = "select bean.id, bean." + tree.getLftName() + ", bean."
+				+ tree.getRgtName() + " from "
+				+ Hibernate.getClass(tree).getName() + " bean";
+		if (!StringUtils.isBlank(tree.getTreeCondition())) {
+			hql += " where " + tree.getTreeCondition();
+		}
+		hql += " order by bean." + tree.getLftName();
+		Session session = sessionFactory.getCurrentSession();
+		List<Object[]> rows = session.createQuery(hql).list();
+		int size = rows.size();
+		int[] ids = new int[size];
+		int[] lfts = new int[size];
+		int[] rgts = new int[size];
+		for (int i = 0; i < size; i++) {
+			Object[] row = rows.get(i);
+			long id = ((Number) row[0]).longValue();
+			if (id > Integer.MAX_VALUE || id < Integer.MIN_VALUE) {
+				throw new IllegalStateException("tree id out of int range: "
+						+ id);
+			}
+			ids[i] = (int) id;
+			lfts[i] = ((Number) row[1]).intValue();
+			rgts[i] = ((Number) row[2]).intValue();
+		}
+		log.debug("tree snapshot loaded: {}, size={}", getKey(tree), size);
+		return TreeSnapshot.build(ids, lfts, rgts);
+	}
+
+	private final ConcurrentMap<String, TreeSnapshot> cache = new ConcurrentHashMap<String, TreeSnapshot>();
+	/**
+	 * 每棵树的版本，每次失效加1
+	 */
+	private final ConcurrentMap<String, AtomicLong> versions = new ConcurrentHashMap<String, AtomicLong>();
+
+	private SessionFactory sessionFactory;
+
+	@Autowired
+	public void setSessionFactory(SessionFactory sessionFactory) {
+		this.sessionFactory = sessionFactory;
+	}
+}
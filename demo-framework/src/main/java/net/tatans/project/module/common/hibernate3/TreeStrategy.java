@@ -0,0 +1,103 @@
+package net.tatans.project.module.common.hibernate3;
+
+import org.hibernate.Session;
+
+/**
+ * 树结构的维护策略。
+ * 
+ * TreeIntercptor在保存、移动、删除节点时调用节点对应的策略维护树结构，并在事务中为同一棵树加锁；策略只负责读写树结构本身。
+ * 默认使用NestedSetTreeStrategy维护HibernateTree，其他策略通过TreeIntercptor#setStrategies加入，例如写入频繁的树使用ClosureTableStrategy。
+ * 子孙节点和祖先节点的查询也由策略生成，调用方不需要关心树的存储方式。
+ * 
+ * @see NestedSetTreeStrategy
+ * @see ClosureTableStrategy
+ */
+public interface TreeStrategy {
+	/**
+	 * 是否由该策略维护
+	 * 
+	 * @param entity
+	 *            实体
+	 * @return
+	 */
+	public boolean supports(Object entity);
+
+	/**
+	 * 保存节点之前调用，此时节点可能还没有ID
+	 * 
+	 * @param session
+	 * @param node
+	 * @param state
+	 *            实体属性值，可以修改
+	 * @param propertyNames
+	 *            实体属性名
+	 * @return 是否修改了state
+	 */
+	public boolean onSave(Session session, HibernateTreeNode<?> node,
+			Object[] state, String[] propertyNames);
+
+	/**
+	 * 父节点改变后，更新节点之前调用
+	 * 
+	 * @param session
+	 * @param node
+	 * @param preParent
+	 *            原父节点，为null表示原来是根节点
+	 * @param currParent
+	 *            新父节点，为null表示移动为根节点
+	 * @param state
+	 *            实体属性值，可以修改
+	 * @param propertyNames
+	 *            实体属性名
+	 * @return 是否修改了state
+	 */
+	public boolean onMove(Session session, HibernateTreeNode<?> node,
+			HibernateTreeNode<?> preParent, HibernateTreeNode<?> currParent,
+			Object[] state, String[] propertyNames);
+
+	/**
+	 * 删除节点之前调用
+	 * 
+	 * @param session
+	 * @param node
+	 */
+	public void onDelete(Session session, HibernateTreeNode<?> node);
+
+	/**
+	 * flush之后调用，新保存的节点此时已经有ID
+	 * 
+	 * @param session
+	 */
+	public void postFlush(Session session);
+
+	/**
+	 * 提交事务之前调用，此时已经flush。抛出的异常会被hibernate忽略，不会回滚事务
+	 * 
+	 * @param session
+	 */
+	public void beforeTransactionCompletion(Session session);
+
+	/**
+	 * 事务结束后调用
+	 * 
+	 * @param committed
+	 *            事务是否提交
+	 */
+	public void afterTransactionCompletion(boolean committed);
+
+	/**
+	 * 获得子孙节点的查询，不包括节点自己。节点必须已经保存。
+	 * 
+	 * @param node
+	 * @return
+	 */
+	public Finder getDescendants(HibernateTreeNode<?> node);
+
+	/**
+	 * 获得祖先节点的查询，从根节点开始，不包括节点自己。节点必须已经保存。
+	 * 
+	 * @param node
+	 * @return
+	 */
+	public Finder getAncestors(HibernateTreeNode<?> node);
+}
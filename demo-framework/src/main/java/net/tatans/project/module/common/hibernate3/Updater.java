@@ -1,125 +1,160 @@
-package net.tatans.project.module.common.hibernate3;
-
-import java.util.HashSet;
-import java.util.Set;
-
-/**
- * 更新对象类
- * 
- * 提供三种更新模式：MAX, MIN, MIDDLE
- * <ul>
- * <li>MIDDLE：默认模式。除了null外，都更新。exclude和include例外。</li>
- * <li>MAX：最大化更新模式。所有字段都更新（包括null）。exclude例外。</li>
- * <li>MIN：最小化更新模式。所有字段都不更新。include例外。</li>
- * </ul>
- */
-public class Updater<T> {
-	/**
-	 * 构造器
-	 * 
-	 * @param bean
-	 *            待更新对象
-	 */
-	public Updater(T bean) {
-		this.bean = bean;
-	}
-
-	/**
-	 * 构造器
-	 * 
-	 * @param bean
-	 *            待更新对象
-	 * @param mode
-	 *            更新模式
-	 * @return
-	 */
-	public Updater(T bean, UpdateMode mode) {
-		this.bean = bean;
-		this.mode = mode;
-	}
-
-	/**
-	 * 设置更新模式
-	 * 
-	 * @param mode
-	 * @return
-	 */
-	public Updater<T> setUpdateMode(UpdateMode mode) {
-		this.mode = mode;
-		return this;
-	}
-
-	/**
-	 * 必须更新的字段
-	 * 
-	 * @param property
-	 * @return
-	 */
-	public Updater<T> include(String property) {
-		includeProperties.add(property);
-		return this;
-	}
-
-	/**
-	 * 不更新的字段
-	 * 
-	 * @param property
-	 * @return
-	 */
-	public Updater<T> exclude(String property) {
-		excludeProperties.add(property);
-		return this;
-	}
-
-	/**
-	 * 某一字段是否更新
-	 * 
-	 * @param name
-	 *            字段名
-	 * @param value
-	 *            字段值。用于检查是否为NULL
-	 * @return
-	 */
-	public boolean isUpdate(String name, Object value) {
-		if (this.mode == UpdateMode.MAX) {
-			return !excludeProperties.contains(name);
-		} else if (this.mode == UpdateMode.MIN) {
-			return includeProperties.contains(name);
-		} else if (this.mode == UpdateMode.MIDDLE) {
-			if (value != null) {
-				return !excludeProperties.contains(name);
-			} else {
-				return includeProperties.contains(name);
-			}
-		} else {
-			// never reach
-		}
-		return true;
-	}
-
-	private T bean;
-
-	private Set<String> includeProperties = new HashSet<String>();
-
-	private Set<String> excludeProperties = new HashSet<String>();
-
-	private UpdateMode mode = UpdateMode.MIDDLE;
-
-	// private static final Logger log = LoggerFactory.getLogger(Updater.class);
-
-	public static enum UpdateMode {
-		MAX, MIN, MIDDLE
-	}
-
-	public T getBean() {
-		return bean;
-	}
-
-	public Set<String> getExcludeProperties() {
-		return excludeProperties;
-	}
-
-	public Set<String> getIncludeProperties() {
-		return includeProperties;
-	}
-}
+package net.tatans.project.module.common.hibernate3;
+
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 更新对象类
+ * 
+ * 提供三种更新模式：MAX, MIN, MIDDLE
+ * <ul>
+ * <li>MIDDLE：默认模式。除了null外，都更新。exclude和include例外。</li>
+ * <li>MAX：最大化更新模式。所有字段都更新（包括null）。exclude例外。</li>
+ * <li>MIN：最小化更新模式。所有字段都不更新。include例外。</li>
+ * </ul>
+ * 
+ * 开启diff时，updateByUpdater只拷贝与持久化对象中的值不相等的字段(按hibernate类型比较)，
+ * 实际修改的字段通过getChangedProperties()获得；没有修改时不会产生update语句，也不会使缓存失效。
+ * 
+ * @see HibernateBaseDao#updateByUpdater(Updater)
+ * @see HibernateBaseDao#updateByUpdaterDirect(Updater)
+ */
+public class Updater<T> {
+	/**
+	 * 构造器
+	 * 
+	 * @param bean
+	 *            待更新对象
+	 */
+	public Updater(T bean) {
+		this.bean = bean;
+	}
+
+	/**
+	 * 构造器
+	 * 
+	 * @param bean
+	 *            待更新对象
+	 * @param mode
+	 *            更新模式
+	 * @return
+	 */
+	public Updater(T bean, UpdateMode mode) {
+		this.bean = bean;
+		this.mode = mode;
+	}
+
+	/**
+	 * 设置更新模式
+	 * 
+	 * @param mode
+	 * @return
+	 */
+	public Updater<T> setUpdateMode(UpdateMode mode) {
+		this.mode = mode;
+		return this;
+	}
+
+	/**
+	 * 设置是否只拷贝有变化的字段，只对updateByUpdater有效
+	 * 
+	 * @param diff
+	 * @return
+	 */
+	public Updater<T> setDiff(boolean diff) {
+		this.diff = diff;
+		return this;
+	}
+
+	/**
+	 * 必须更新的字段
+	 * 
+	 * @param property
+	 * @return
+	 */
+	public Updater<T> include(String property) {
+		includeProperties.add(property);
+		return this;
+	}
+
+	/**
+	 * 不更新的字段
+	 * 
+	 * @param property
+	 * @return
+	 */
+	public Updater<T> exclude(String property) {
+		excludeProperties.add(property);
+		return this;
+	}
+
+	/**
+	 * 某一字段是否更新
+	 * 
+	 * @param name
+	 *            字段名
+	 * @param value
+	 *            字段值。用于检查是否为NULL
+	 * @return
+	 */
+	public boolean isUpdate(String name, Object value) {
+		if (this.mode == UpdateMode.MAX) {
+			return !excludeProperties.contains(name);
+		} else if (this.mode == UpdateMode.MIN) {
+			return includeProperties.contains(name);
+		} else if (this.mode == UpdateMode.MIDDLE) {
+			if (value != null) {
+				return !excludeProperties.contains(name);
+			} else {
+				return includeProperties.contains(name);
+			}
+		} else {
+			// never reach
+		}
+		return true;
+	}
+
+	private T bean;
+
+	private Set<String> includeProperties = new HashSet<String>();
+
+	private Set<String> excludeProperties = new HashSet<String>();
+
+	private UpdateMode mode = UpdateMode.MIDDLE;
+
+	private boolean diff;
+
+	private Set<String> changedProperties = new LinkedHashSet<String>();
+
+	// private static final Logger log = LoggerFactory.getLogger(Updater.class);
+
+	public static enum UpdateMode {
+		MAX, MIN, MIDDLE
+	}
+
+	public T getBean() {
+		return bean;
+	}
+
+	public Set<String> getExcludeProperties() {
+		return excludeProperties;
+	}
+
+	public Set<String> getIncludeProperties() {
+		return includeProperties;
+	}
+
+	public boolean isDiff() {
+		return diff;
+	}
+
+	/**
+	 * 上一次updateByUpdater实际拷贝到持久化对象中的字段，按映射顺序
+	 * 
+	 * @return
+	 */
+	public Set<String> getChangedProperties() {
+		return changedProperties;
+	}
+}
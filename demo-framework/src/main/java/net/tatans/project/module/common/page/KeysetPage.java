@@ -0,0 +1,97 @@
+package net.tatans.project.module.common.page;
+
+import java.util.List;
+
+/**
+ * keyset(seek)分页。不计算总记录数，也不使用offset，而是以上一页最后一条数据的排序键定位下一页，
+ * 因此翻到多深的页，查询代价都不变。
+ */
+@SuppressWarnings("serial")
+public class KeysetPage implements java.io.Serializable {
+
+	public KeysetPage() {
+	}
+
+	/**
+	 * 构造器
+	 * 
+	 * @param pageSize
+	 *            每页几条数据
+	 * @param firstPage
+	 *            是否第一页
+	 */
+	public KeysetPage(int pageSize, boolean firstPage) {
+		setPageSize(pageSize);
+		this.firstPage = firstPage;
+	}
+
+	/**
+	 * 每页几条数据
+	 */
+	public int getPageSize() {
+		return pageSize;
+	}
+
+	/**
+	 * if pageSize< 1 then pageSize=SimplePage.DEF_COUNT
+	 * 
+	 * @param pageSize
+	 */
+	public void setPageSize(int pageSize) {
+		if (pageSize < 1) {
+			this.pageSize = SimplePage.DEF_COUNT;
+		} else {
+			this.pageSize = pageSize;
+		}
+	}
+
+	/**
+	 * 是否第一页
+	 */
+	public boolean isFirstPage() {
+		return firstPage;
+	}
+
+	/**
+	 * 是否最后一页
+	 */
+	public boolean isLastPage() {
+		return nextKey == null;
+	}
+
+	/**
+	 * 下一页的游标，即当前页最后一条数据的排序键。
+	 * 
+	 * @return 最后一页时返回null
+	 */
+	public Object[] getNextKey() {
+		return nextKey;
+	}
+
+	public void setNextKey(Object[] nextKey) {
+		this.nextKey = nextKey;
+	}
+
+	/**
+	 * 获得分页内容
+	 * 
+	 * @return
+	 */
+	public List<?> getList() {
+		return list;
+	}
+
+	/**
+	 * 设置分页内容
+	 * 
+	 * @param list
+	 */
+	public void setList(List<?> list) {
+		this.list = list;
+	}
+
+	private int pageSize = SimplePage.DEF_COUNT;
+	private boolean firstPage = true;
+	private Object[] nextKey;
+	private List<?> list;
+}
@@ -1,78 +1,101 @@
-package net.tatans.project.module.common.page;
-
-import java.util.List;
-
-/**
- * 列表分页。包含list属性。
- */
-@SuppressWarnings("serial")
-public class Pagination extends SimplePage implements java.io.Serializable,
-		Paginable {
-
-	public Pagination() {
-	}
-
-	/**
-	 * 构造器
-	 * 
-	 * @param pageNo
-	 *            页码
-	 * @param pageSize
-	 *            每页几条数据
-	 * @param totalCount
-	 *            总共几条数据
-	 */
-	public Pagination(int pageNo, int pageSize, int totalCount) {
-		super(pageNo, pageSize, totalCount);
-	}
-
-	/**
-	 * 构造器
-	 * 
-	 * @param pageNo
-	 *            页码
-	 * @param pageSize
-	 *            每页几条数据
-	 * @param totalCount
-	 *            总共几条数据
-	 * @param list
-	 *            分页内容
-	 */
-	public Pagination(int pageNo, int pageSize, int totalCount, List<?> list) {
-		super(pageNo, pageSize, totalCount);
-		this.list = list;
-	}
-
-	/**
-	 * 第一条数据位置
-	 * 
-	 * @return
-	 */
-	public int getFirstResult() {
-		return (pageNo - 1) * pageSize;
-	}
-
-	/**
-	 * 当前页的数据
-	 */
-	private List<?> list;
-
-	/**
-	 * 获得分页内容
-	 * 
-	 * @return
-	 */
-	public List<?> getList() {
-		return list;
-	}
-
-	/**
-	 * 设置分页内容
-	 * 
-	 * @param list
-	 */
-	@SuppressWarnings("unchecked")
-	public void setList(List list) {
-		this.list = list;
-	}
-}
+package net.tatans.project.module.common.page;
+
+import java.util.List;
+
+/**
+ * 列表分页。包含list属性。
+ */
+@SuppressWarnings("serial")
+public class Pagination extends SimplePage implements java.io.Serializable,
+		Paginable {
+
+	public Pagination() {
+	}
+
+	/**
+	 * 构造器
+	 * 
+	 * @param pageNo
+	 *            页码
+	 * @param pageSize
+	 *            每页几条数据
+	 * @param totalCount
+	 *            总共几条数据
+	 */
+	public Pagination(int pageNo, int pageSize, int totalCount) {
+		super(pageNo, pageSize, totalCount);
+	}
+
+	/**
+	 * 构造器
+	 * 
+	 * @param pageNo
+	 *            页码
+	 * @param pageSize
+	 *            每页几条数据
+	 * @param totalCount
+	 *            总共几条数据
+	 * @param list
+	 *            分页内容
+	 */
+	public Pagination(int pageNo, int pageSize, int totalCount, List<?> list) {
+		super(pageNo, pageSize, totalCount);
+		this.list = list;
+	}
+
+	/**
+	 * 第一条数据位置
+	 * 
+	 * @return
+	 */
+	public int getFirstResult() {
+		return (pageNo - 1) * pageSize;
+	}
+
+	/**
+	 * 当前页的数据
+	 */
+	private List<?> list;
+
+	/**
+	 * 获得分页内容
+	 * 
+	 * @return
+	 */
+	public List<?> getList() {
+		return list;
+	}
+
+	/**
+	 * 设置分页内容
+	 * 
+	 * @param list
+	 */
+	@SuppressWarnings("unchecked")
+	public void setList(List list) {
+		this.list = list;
+	}
+
+	/**
+	 * 总记录数是否为估算值
+	 */
+	private boolean approximate;
+
+	/**
+	 * 总记录数是否为估算值。为估算值时总页数也不精确，页面上应显示为"约xx条"
+	 * 
+	 * @return
+	 */
+	public boolean isApproximate() {
+		return approximate;
+	}
+
+	/**
+	 * 设置总记录数是否为估算值
+	 * 
+	 * @param approximate
+	 */
+	public void setApproximate(boolean approximate) {
+		this.approximate = approximate;
+	}
+}
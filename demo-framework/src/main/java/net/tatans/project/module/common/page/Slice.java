@@ -0,0 +1,144 @@
+package net.tatans.project.module.common.page;
+
+import java.util.List;
+
+/**
+ * 不含总记录数的列表分页。只知道是否还有下一页，查询时不需要执行count，适用于"加载更多"之类的场景。
+ */
+@SuppressWarnings("serial")
+public class Slice implements java.io.Serializable {
+
+	public Slice() {
+	}
+
+	/**
+	 * 构造器
+	 * 
+	 * @param pageNo
+	 *            页码
+	 * @param pageSize
+	 *            每页几条数据
+	 */
+	public Slice(int pageNo, int pageSize) {
+		setPageNo(pageNo);
+		setPageSize(pageSize);
+	}
+
+	/**
+	 * 第一条数据位置
+	 * 
+	 * @return
+	 */
+	public int getFirstResult() {
+		return (pageNo - 1) * pageSize;
+	}
+
+	/**
+	 * 获得页码
+	 */
+	public int getPageNo() {
+		return pageNo;
+	}
+
+	/**
+	 * 每页几条数据
+	 */
+	public int getPageSize() {
+		return pageSize;
+	}
+
+	/**
+	 * 是否第一页
+	 */
+	public boolean isFirstPage() {
+		return pageNo <= 1;
+	}
+
+	/**
+	 * 是否最后一页
+	 */
+	public boolean isLastPage() {
+		return !hasNext;
+	}
+
+	/**
+	 * 是否还有下一页
+	 */
+	public boolean hasNext() {
+		return hasNext;
+	}
+
+	/**
+	 * 下一页页码
+	 */
+	public int getNextPage() {
+		if (isLastPage()) {
+			return pageNo;
+		} else {
+			return pageNo + 1;
+		}
+	}
+
+	/**
+	 * 上一页页码
+	 */
+	public int getPrePage() {
+		if (isFirstPage()) {
+			return pageNo;
+		} else {
+			return pageNo - 1;
+		}
+	}
+
+	/**
+	 * 获得分页内容
+	 * 
+	 * @return
+	 */
+	public List<?> getList() {
+		return list;
+	}
+
+	/**
+	 * 设置分页内容
+	 * 
+	 * @param list
+	 * @param hasNext
+	 *            是否还有下一页
+	 */
+	public void setList(List<?> list, boolean hasNext) {
+		this.list = list;
+		this.hasNext = hasNext;
+	}
+
+	/**
+	 * if pageSize< 1 then pageSize=SimplePage.DEF_COUNT
+	 * 
+	 * @param pageSize
+	 */
+	public void setPageSize(int pageSize) {
+		if (pageSize < 1) {
+			this.pageSize = SimplePage.DEF_COUNT;
+		} else {
+			this.pageSize = pageSize;
+		}
+	}
+
+	/**
+	 * if pageNo < 1 then pageNo=1
+	 * 
+	 * @param pageNo
+	 */
+	public void setPageNo(int pageNo) {
+		if (pageNo < 1) {
+			this.pageNo = 1;
+		} else {
+			this.pageNo = pageNo;
+		}
+	}
+
+	private int pageNo = 1;
+	private int pageSize = SimplePage.DEF_COUNT;
+	private boolean hasNext;
+	private List<?> list;
+}
@@ -0,0 +1,195 @@
+package net.tatans.project.module.common.util;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Map;
+
+/**
+ * Project Name:demo-framework
+ * 
+ * Package:net.tatans.project.module.common.util
+ * 
+ * FileName:BeanAccessor.java
+ * 
+ *         Purpose: 一个类的属性访问器，由BeanAccessors创建并缓存。<br>
+ *         getter、setter和字段在创建时解析一次，之后按下标访问；公开的getter、setter通过javassist生成的类直接调用，
+ *         不经过Method.invoke，也不分配对象(基本类型的装箱除外)。
+ *         没有getter或setter的属性直接读写字段，无视private/protected修饰符。
+ *         无法生成类时(例如类不是public)退回到缓存的Method.invoke。实例不可变，可以在多线程中共享。
+ * 
+ *         Create Time: 2026年10月18日 上午3:20:16
+ * 
+ *         Version: 1.0
+ * 
+ * @see BeanAccessors#get(Class)
+ */
+public final class BeanAccessor {
+	/**
+	 * 生成类的基类，按属性下标调用getter、setter
+	 */
+	public static abstract class Invoker {
+		public abstract Object get(Object bean, int index);
+
+		public abstract void set(Object bean, int index, Object value);
+	}
+
+	BeanAccessor(Class<?> beanClass, String[] propertyNames,
+			Map<String, Integer> indexes, Method[] readMethods,
+			Method[] writeMethods, Field[] fields, Invoker invoker) {
+		this.beanClass = beanClass;
+		this.propertyNames = propertyNames;
+		this.indexes = indexes;
+		this.readMethods = readMethods;
+		this.writeMethods = writeMethods;
+		this.fields = fields;
+		this.invoker = invoker;
+	}
+
+	/**
+	 * 获得属性的下标
+	 * 
+	 * @param propertyName
+	 * @return 没有该属性时返回-1
+	 */
+	public int indexOf(String propertyName) {
+		Integer index = indexes.get(propertyName);
+		return index == null ? -1 : index;
+	}
+
+	/**
+	 * 读取属性值，优先使用getter
+	 * 
+	 * @param bean
+	 * @param index
+	 *            属性下标
+	 * @return
+	 */
+	public Object getValue(Object bean, int index) {
+		if (readMethods[index] != null) {
+			if (invoker != null) {
+				return invoker.get(bean, index);
+			}
+			return invoke(readMethods[index], bean);
+		}
+		if (fields[index] != null) {
+			try {
+				return fields[index].get(bean);
+			} catch (IllegalAccessException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+		throw new IllegalArgumentException("property '"
+				+ propertyNames[index] + "' is not readable on "
+				+ beanClass.getName());
+	}
+
+	/**
+	 * 设置属性值，优先使用setter
+	 * 
+	 * @param bean
+	 * @param index
+	 *            属性下标
+	 * @param value
+	 */
+	public void setValue(Object bean, int index, Object value) {
+		if (writeMethods[index] != null) {
+			if (invoker != null) {
+				invoker.set(bean, index, value);
+			} else {
+				invoke(writeMethods[index], bean, value);
+			}
+			return;
+		}
+		if (fields[index] != null) {
+			try {
+				fields[index].set(bean, value);
+				return;
+			} catch (IllegalAccessException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+		throw new IllegalArgumentException("property '"
+				+ propertyNames[index] + "' is not writable on "
+				+ beanClass.getName());
+	}
+
+	/**
+	 * 按名称读取属性值
+	 * 
+	 * @param bean
+	 * @param propertyName
+	 * @return
+	 */
+	public Object getValue(Object bean, String propertyName) {
+		return getValue(bean, getIndex(propertyName));
+	}
+
+	/**
+	 * 按名称设置属性值
+	 * 
+	 * @param bean
+	 * @param propertyName
+	 * @param value
+	 */
+	public void setValue(Object bean, String propertyName, Object value) {
+		setValue(bean, getIndex(propertyName), value);
+	}
+
+	/**
+	 * 获得所有属性名称，下标与getValue、setValue一致
+	 * 
+	 * @return
+	 */
+	public String[] getPropertyNames() {
+		return propertyNames.clone();
+	}
+
+	public Class<?> getBeanClass() {
+		return beanClass;
+	}
+
+	/**
+	 * 是否通过生成的类调用getter、setter
+	 * 
+	 * @return
+	 */
+	public boolean isGenerated() {
+		return invoker != null;
+	}
+
+	private int getIndex(String propertyName) {
+		Integer index = indexes.get(propertyName);
+		if (index == null) {
+			throw new IllegalArgumentException("Could not find property ["
+					+ propertyName + "] on class [" + beanClass.getName()
+					+ "]");
+		}
+		return index;
+	}
+
+	private static Object invoke(Method method, Object bean, Object... args) {
+		try {
+			return method.invoke(bean, args);
+		} catch (IllegalAccessException e) {
+			throw new IllegalStateException(e);
+		} catch (InvocationTargetException e) {
+			Throwable t = e.getTargetException();
+			if (t instanceof RuntimeException) {
+				throw (RuntimeException) t;
+			}
+			if (t instanceof Error) {
+				throw (Error) t;
+			}
+			throw new IllegalStateException(t);
+		}
+	}
+
+	private final Class<?> beanClass;
+	private final String[] propertyNames;
+	private final Map<String, Integer> indexes;
+	private final Method[] readMethods;
+	private final Method[] writeMethods;
+	private final Field[] fields;
+	private final Invoker invoker;
+}
@@ -0,0 +1,414 @@
+package net.tatans.project.module.common.util;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.bytecode.AccessFlag;
+import javassist.bytecode.Bytecode;
+import javassist.bytecode.ClassFile;
+import javassist.bytecode.ConstPool;
+import javassist.bytecode.MethodInfo;
+import javassist.bytecode.Opcode;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.Assert;
+
+/**
+ * Project Name:demo-framework
+ * 
+ * Package:net.tatans.project.module.common.util
+ * 
+ * FileName:BeanAccessors.java
+ * 
+ *         Purpose: 按类缓存的属性访问器。<br>
+ *         每个类第一次访问时通过Introspector解析getter、setter和字段，并用javassist生成按下标调用getter、setter的类，
+ *         之后的读写不再查找方法，也不经过反射。用于替代MyBeanUtils.getSimpleProperty，例如：
+ * 
+ *         <pre>
+ * BeanAccessor accessor = BeanAccessors.get(bean.getClass());
+ * int index = accessor.indexOf(&quot;name&quot;);
+ * Object name = accessor.getValue(bean, index);
+ * </pre>
+ * 
+ *         生成的类定义在实体类的ClassLoader中。访问器按Class一直缓存，只适合实体、表单等数量有限的类。
+ * 
+ *         Create Time: 2026年10月18日 上午3:20:16
+ * 
+ *         Version: 1.0
+ */
+public final class BeanAccessors {
+	private static final Logger log = LoggerFactory
+			.getLogger(BeanAccessors.class);
+
+	private BeanAccessors() {
+	}
+
+	/**
+	 * 获得类的属性访问器
+	 * 
+	 * @param beanClass
+	 * @return
+	 */
+	public static BeanAccessor get(Class<?> beanClass) {
+		BeanAccessor accessor = cache.get(beanClass);
+		if (accessor == null) {
+			Assert.notNull(beanClass);
+			accessor = create(beanClass);
+			BeanAccessor exist = cache.putIfAbsent(beanClass, accessor);
+			if (exist != null) {
+				accessor = exist;
+			}
+		}
+		return accessor;
+	}
+
+	/**
+	 * 读取属性值，等同于get(bean.getClass()).getValue(bean, propertyName)
+	 * 
+	 * @param bean
+	 * @param propertyName
+	 * @return
+	 */
+	public static Object getValue(Object bean, String propertyName) {
+		return get(bean.getClass()).getValue(bean, propertyName);
+	}
+
+	private static BeanAccessor create(Class<?> beanClass) {
+		List<String> names = new ArrayList<String>();
+		List<Method> readMethods = new ArrayList<Method>();
+		List<Method> writeMethods = new ArrayList<Method>();
+		PropertyDescriptor[] descriptors;
+		try {
+			descriptors = Introspector.getBeanInfo(beanClass)
+					.getPropertyDescriptors();
+		} catch (IntrospectionException e) {
+			throw new IllegalArgumentException("cannot introspect "
+					+ beanClass.getName(), e);
+		}
+		for (PropertyDescriptor pd : descriptors) {
+			if (pd.getReadMethod() == null && pd.getWriteMethod() == null) {
+				continue;
+			}
+			names.add(pd.getName());
+			readMethods.add(pd.getReadMethod());
+			writeMethods.add(pd.getWriteMethod());
+		}
+		// 没有getter、setter的字段，子类的字段优先
+		Map<String, Field> declaredFields = new HashMap<String, Field>();
+		for (Class<?> c = beanClass; c != null && c != Object.class; c = c
+				.getSuperclass()) {
+			for (Field field : c.getDeclaredFields()) {
+				if (!Modifier.isStatic(field.getModifiers())
+						&& !declaredFields.containsKey(field.getName())) {
+					declaredFields.put(field.getName(), field);
+				}
+			}
+		}
+		for (String name : declaredFields.keySet()) {
+			if (!names.contains(name)) {
+				names.add(name);
+				readMethods.add(null);
+				writeMethods.add(null);
+			}
+		}
+		int size = names.size();
+		Map<String, Integer> indexes = new HashMap<String, Integer>();
+		Field[] fields = new Field[size];
+		for (int i = 0; i < size; i++) {
+			indexes.put(names.get(i), i);
+			Field field = declaredFields.get(names.get(i));
+			if (field != null) {
+				try {
+					field.setAccessible(true);
+					fields[i] = field;
+				} catch (RuntimeException e) {
+					log.debug("cannot access field " + field, e);
+				}
+			}
+		}
+		Method[] reads = readMethods.toArray(new Method[size]);
+		Method[] writes = writeMethods.toArray(new Method[size]);
+		BeanAccessor.Invoker invoker = generate(beanClass, reads, writes);
+		return new BeanAccessor(beanClass, names.toArray(new String[size]),
+				indexes, reads, writes, fields, invoker);
+	}
+
+	/**
+	 * 生成按下标调用getter、setter的类，失败时返回null，退回到Method.invoke。
+	 * 直接生成字节码，不需要javassist读取实体类和JDK的class文件
+	 */
+	private static BeanAccessor.Invoker generate(Class<?> beanClass,
+			Method[] reads, Method[] writes) {
+		if (!isGeneratable(beanClass, reads, writes)) {
+			prepareReflection(reads, writes);
+			return null;
+		}
+		String name = beanClass.getName() + "$$BeanAccessor$$"
+				+ counter.incrementAndGet();
+		try {
+			ClassFile cf = new ClassFile(false, name,
+					BeanAccessor.Invoker.class.getName());
+			cf.setMajorVersion(CLASS_VERSION);
+			cf.setAccessFlags(AccessFlag.PUBLIC);
+			ConstPool cp = cf.getConstPool();
+			cf.addMethod(makeConstructor(cp));
+			cf.addMethod(makeGet(cp, beanClass, reads));
+			cf.addMethod(makeSet(cp, beanClass, writes));
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			cf.write(new DataOutputStream(out));
+			ClassPool pool = new ClassPool(false);
+			CtClass cc = pool.makeClass(new ByteArrayInputStream(out
+					.toByteArray()));
+			Class<?> c = pool.toClass(cc, beanClass.getClassLoader(),
+					beanClass.getProtectionDomain());
+			cc.detach();
+			return (BeanAccessor.Invoker) c.newInstance();
+		} catch (Throwable e) {
+			log.warn("generate bean accessor failed, use reflection: "
+					+ beanClass.getName(), e);
+			prepareReflection(reads, writes);
+			return null;
+		}
+	}
+
+	private static MethodInfo makeConstructor(ConstPool cp) {
+		Bytecode code = new Bytecode(cp, 1, 1);
+		code.addAload(0);
+		code.addInvokespecial(BeanAccessor.Invoker.class.getName(),
+				MethodInfo.nameInit, "()V");
+		code.addOpcode(Opcode.RETURN);
+		MethodInfo mi = new MethodInfo(cp, MethodInfo.nameInit, "()V");
+		mi.setAccessFlags(AccessFlag.PUBLIC);
+		mi.setCodeAttribute(code.toCodeAttribute());
+		return mi;
+	}
+
+	/**
+	 * Object get(Object bean, int index)：局部变量3为转换类型后的bean
+	 */
+	private static MethodInfo makeGet(ConstPool cp, Class<?> beanClass,
+			Method[] reads) {
+		Bytecode code = new Bytecode(cp, 4, 4);
+		code.addAload(1);
+		code.addCheckcast(beanClass.getName());
+		code.addAstore(3);
+		int[] targets = new int[reads.length];
+		int[] table = addSwitch(code, targets.length);
+		for (int i = 0; i < reads.length; i++) {
+			if (reads[i] == null) {
+				targets[i] = -1;
+				continue;
+			}
+			targets[i] = code.currentPc();
+			Class<?> type = reads[i].getReturnType();
+			code.addAload(3);
+			code.addInvokevirtual(beanClass.getName(), reads[i].getName(),
+					getDescriptor(reads[i]));
+			if (type.isPrimitive()) {
+				Class<?> wrapper = getWrapper(type);
+				code.addInvokestatic(wrapper.getName(), "valueOf", "("
+						+ getDescriptor(type) + ")" + getDescriptor(wrapper));
+			}
+			code.addOpcode(Opcode.ARETURN);
+		}
+		endSwitch(code, table, targets, "no getter");
+		MethodInfo mi = new MethodInfo(cp, "get",
+				"(Ljava/lang/Object;I)Ljava/lang/Object;");
+		mi.setAccessFlags(AccessFlag.PUBLIC);
+		mi.setCodeAttribute(code.toCodeAttribute());
+		return mi;
+	}
+
+	/**
+	 * void set(Object bean, int index, Object value)：局部变量4为转换类型后的bean
+	 */
+	private static MethodInfo makeSet(ConstPool cp, Class<?> beanClass,
+			Method[] writes) {
+		Bytecode code = new Bytecode(cp, 4, 5);
+		code.addAload(1);
+		code.addCheckcast(beanClass.getName());
+		code.addAstore(4);
+		int[] targets = new int[writes.length];
+		int[] table = addSwitch(code, targets.length);
+		for (int i = 0; i < writes.length; i++) {
+			if (writes[i] == null) {
+				targets[i] = -1;
+				continue;
+			}
+			targets[i] = code.currentPc();
+			Class<?> type = writes[i].getParameterTypes()[0];
+			code.addAload(4);
+			code.addAload(3);
+			if (type.isPrimitive()) {
+				Class<?> wrapper = getWrapper(type);
+				code.addCheckcast(wrapper.getName());
+				code.addInvokevirtual(wrapper.getName(), type.getName()
+						+ "Value", "()" + getDescriptor(type));
+			} else {
+				code.addCheckcast(type.getName());
+			}
+			code.addInvokevirtual(beanClass.getName(), writes[i].getName(),
+					getDescriptor(writes[i]));
+			Class<?> returnType = writes[i].getReturnType();
+			if (returnType == long.class || returnType == double.class) {
+				code.addOpcode(Opcode.POP2);
+			} else if (returnType != void.class) {
+				code.addOpcode(Opcode.POP);
+			}
+			code.addOpcode(Opcode.RETURN);
+		}
+		endSwitch(code, table, targets, "no setter");
+		MethodInfo mi = new MethodInfo(cp, "set",
+				"(Ljava/lang/Object;ILjava/lang/Object;)V");
+		mi.setAccessFlags(AccessFlag.PUBLIC);
+		mi.setCodeAttribute(code.toCodeAttribute());
+		return mi;
+	}
+
+	/**
+	 * 按参数2(index)跳转的tableswitch，下标从0到count-1，跳转地址在endSwitch中回填
+	 * 
+	 * @return tableswitch指令的位置和default跳转地址的位置
+	 */
+	private static int[] addSwitch(Bytecode code, int count) {
+		code.addIload(2);
+		int switchPc = code.currentPc();
+		code.addOpcode(Opcode.TABLESWITCH);
+		while (code.currentPc() % 4 != 0) {
+			code.add(0);
+		}
+		int defaultPos = code.currentPc();
+		code.add32bit(0);
+		code.add32bit(0);
+		code.add32bit(count - 1);
+		for (int i = 0; i < count; i++) {
+			code.add32bit(0);
+		}
+		return new int[] { switchPc, defaultPos };
+	}
+
+	private static void endSwitch(Bytecode code, int[] table, int[] targets,
+			String message) {
+		// 下标超出范围或属性没有对应方法时抛出异常
+		int defaultPc = code.currentPc();
+		code.addNew(IllegalArgumentException.class.getName());
+		code.addOpcode(Opcode.DUP);
+		code.addLdc(message);
+		code.addInvokespecial(IllegalArgumentException.class.getName(),
+				MethodInfo.nameInit, "(Ljava/lang/String;)V");
+		code.addOpcode(Opcode.ATHROW);
+		int switchPc = table[0];
+		code.write32bit(table[1], defaultPc - switchPc);
+		for (int i = 0; i < targets.length; i++) {
+			code.write32bit(table[1] + 12 + i * 4,
+					(targets[i] == -1 ? defaultPc : targets[i]) - switchPc);
+		}
+	}
+
+	/**
+	 * 生成的类只能调用public类中的方法，系统类不能生成
+	 */
+	private static boolean isGeneratable(Class<?> beanClass, Method[] reads,
+			Method[] writes) {
+		if (!Modifier.isPublic(beanClass.getModifiers())
+				|| beanClass.getClassLoader() == null) {
+			return false;
+		}
+		for (int i = 0; i < reads.length; i++) {
+			if ((reads[i] != null && !Modifier.isPublic(reads[i]
+					.getDeclaringClass().getModifiers()))
+					|| (writes[i] != null && !Modifier.isPublic(writes[i]
+							.getDeclaringClass().getModifiers()))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static void prepareReflection(Method[] reads, Method[] writes) {
+		for (int i = 0; i < reads.length; i++) {
+			makeAccessible(reads[i]);
+			makeAccessible(writes[i]);
+		}
+	}
+
+	private static void makeAccessible(Method method) {
+		if (method != null
+				&& !Modifier.isPublic(method.getDeclaringClass()
+						.getModifiers())) {
+			try {
+				method.setAccessible(true);
+			} catch (RuntimeException e) {
+				log.debug("cannot access method " + method, e);
+			}
+		}
+	}
+
+	private static String getDescriptor(Method method) {
+		StringBuilder sb = new StringBuilder("(");
+		for (Class<?> type : method.getParameterTypes()) {
+			sb.append(getDescriptor(type));
+		}
+		return sb.append(")").append(getDescriptor(method.getReturnType()))
+				.toString();
+	}
+
+	private static String getDescriptor(Class<?> type) {
+		if (type.isArray()) {
+			return type.getName().replace('.', '/');
+		} else if (!type.isPrimitive()) {
+			return "L" + type.getName().replace('.', '/') + ";";
+		} else if (type == void.class) {
+			return "V";
+		} else if (type == long.class) {
+			return "J";
+		} else if (type == boolean.class) {
+			return "Z";
+		}
+		return type.getName().substring(0, 1).toUpperCase(Locale.ENGLISH);
+	}
+
+	private static Class<?> getWrapper(Class<?> type) {
+		if (type == int.class) {
+			return Integer.class;
+		} else if (type == long.class) {
+			return Long.class;
+		} else if (type == boolean.class) {
+			return Boolean.class;
+		} else if (type == double.class) {
+			return Double.class;
+		} else if (type == float.class) {
+			return Float.class;
+		} else if (type == short.class) {
+			return Short.class;
+		} else if (type == byte.class) {
+			return Byte.class;
+		}
+		return Character.class;
+	}
+
+	private static final ConcurrentMap<Class<?>, BeanAccessor> cache = new ConcurrentHashMap<Class<?>, BeanAccessor>();
+	/**
+	 * 生成类的版本(Java 5)，不需要StackMapTable
+	 */
+	private static final int CLASS_VERSION = 49;
+	private static final AtomicInteger counter = new AtomicInteger();
+}
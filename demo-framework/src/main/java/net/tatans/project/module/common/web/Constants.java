@@ -1,43 +1,43 @@
-package net.tatans.project.module.common.web;
-
-/**
- * web常量
- */
-public abstract class Constants {
-	/**
-	 * 路径分隔符
-	 */
-	public static final String SPT = "/";
-	/**
-	 * 索引页
-	 */
-	public static final String INDEX = "index";
-	/**
-	 * 默认模板
-	 */
-	public static final String DEFAULT = "default";
-	/**
-	 * UTF-8编码
-	 */
-	public static final String UTF8 = "UTF-8";
-	/**
-	 * 提示信息
-	 */
-	public static final String MESSAGE = "message";
-	/**
-	 * cookie中的JSESSIONID名称
-	 */
-	public static final String JSESSION_COOKIE = "JSESSIONID";
-	/**
-	 * url中的jsessionid名称
-	 */
-	public static final String JSESSION_URL = "jsessionid";
-	/**
-	 * HTTP POST请求
-	 */
-	public static final String POST = "POST";
-	/**
-	 * HTTP GET请求
-	 */
-	public static final String GET = "GET";
-}
+package net.tatans.project.module.common.web;
+
+/**
+ * web常量
+ */
+public abstract class Constants {
+	/**
+	 * 路径分隔符
+	 */
+	public static final String SPT = "/";
+	/**
+	 * 索引页
+	 */
+	public static final String INDEX = "index";
+	/**
+	 * 默认模板
+	 */
+	public static final String DEFAULT = "default";
+	/**
+	 * UTF-8编码
+	 */
+	public static final String UTF8 = "UTF-8";
+	/**
+	 * 提示信息
+	 */
+	public static final String MESSAGE = "message";
+	/**
+	 * cookie中的JSESSIONID名称
+	 */
+	public static final String JSESSION_COOKIE = "JSESSIONID";
+	/**
+	 * url中的jsessionid名称
+	 */
+	public static final String JSESSION_URL = "jsessionid";
+	/**
+	 * HTTP POST请求
+	 */
+	public static final String POST = "POST";
+	/**
+	 * HTTP GET请求
+	 */
+	public static final String GET = "GET";
+}
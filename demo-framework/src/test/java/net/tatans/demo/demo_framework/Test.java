@@ -1,12 +1,12 @@
-package net.tatans.demo.demo_framework;
-
-public class Test
-{
-
-	public static void main(String[] args)
-	{
-		// TODO Auto-generated method stub
-		System.out.println();
-	}
-
-}
+package net.tatans.demo.demo_framework;
+
+public class Test
+{
+
+	public static void main(String[] args)
+	{
+		// TODO Auto-generated method stub
+		System.out.println();
+	}
+
+}
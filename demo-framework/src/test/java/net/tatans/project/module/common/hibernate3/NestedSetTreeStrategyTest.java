@@ -0,0 +1,177 @@
+package net.tatans.project.module.common.hibernate3;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * Project Name:demo-framework
+ * 
+ * Package:net.tatans.project.module.common.hibernate3
+ * 
+ * FileName:NestedSetTreeStrategyTest.java
+ * 
+ *         Purpose: 验证移动子树的平移计算：移动后的左右值与按新父节点重建的结果一致
+ * 
+ *         Create Time: 2026年10月18日 上午10:05:32
+ * 
+ *         Version: 1.0
+ */
+public class NestedSetTreeStrategyTest extends TestCase {
+	/**
+	 * <pre>
+	 * 1 [1, 8]
+	 *   2 [2, 5]
+	 *     4 [3, 4]
+	 *   3 [6, 7]
+	 * 5 [9, 10]
+	 * </pre>
+	 * 
+	 * 把2移动到5下：position为5的右值
+	 */
+	public void testMoveRight() {
+		NestedSetTreeStrategy.Move move = new NestedSetTreeStrategy.Move(2,
+				5, 10);
+		assertEquals(4, move.offset);
+		assertEquals(-4, move.rangeOffset);
+		assertEquals(2, move.min);
+		assertEquals(9, move.max);
+		// 1 [1, 4]，3 [2, 3]，5 [5, 10]，2 [6, 9]，4 [7, 8]
+		assertMoved(move, new int[] { 1, 2, 3, 6, 9 }, new int[] { 1, 6, 7,
+				2, 5 });
+		assertMoved(move, new int[] { 8, 5, 4, 7, 10 }, new int[] { 4, 9, 8,
+				3, 10 });
+	}
+
+	/**
+	 * 把3移动到2下：position为2的右值
+	 */
+	public void testMoveLeft() {
+		NestedSetTreeStrategy.Move move = new NestedSetTreeStrategy.Move(6,
+				7, 5);
+		assertEquals(-1, move.offset);
+		assertEquals(2, move.rangeOffset);
+		// 1 [1, 8]，2 [2, 7]，4 [3, 4]，3 [5, 6]，5 [9, 10]
+		assertMoved(move, new int[] { 1, 2, 3, 6, 9 }, new int[] { 1, 2, 3,
+				5, 9 });
+		assertMoved(move, new int[] { 8, 5, 4, 7, 10 }, new int[] { 8, 7, 4,
+				6, 10 });
+	}
+
+	/**
+	 * 已经是父节点的最后一个子节点时不需要移动
+	 */
+	public void testMoveInPlace() {
+		NestedSetTreeStrategy.Move move = new NestedSetTreeStrategy.Move(6,
+				7, 8);
+		assertEquals(0, move.offset);
+	}
+
+	/**
+	 * 随机树上随机移动，与按新父节点重建(被移动节点排在兄弟节点最后)的结果比较
+	 */
+	public void testMoveRebuildRoundTrip() {
+		Random random = new Random(20261018L);
+		for (int round = 0; round < 500; round++) {
+			int n = 1 + random.nextInt(40);
+			final Long[] parents = new Long[n];
+			for (int i = 1; i < n; i++) {
+				parents[i] = random.nextInt(4) == 0 ? null : Long
+						.valueOf(random.nextInt(i));
+			}
+			int[][] before = number(parents, null);
+			int node = random.nextInt(n);
+			Long parent = pickParent(random, before, node);
+			int position;
+			if (parent == null) {
+				position = 2 * n + 1;
+			} else {
+				position = before[1][parent.intValue()];
+			}
+			NestedSetTreeStrategy.Move move = new NestedSetTreeStrategy.Move(
+					before[0][node], before[1][node], position);
+			int[] lfts = new int[n];
+			int[] rgts = new int[n];
+			for (int i = 0; i < n; i++) {
+				lfts[i] = move.apply(before[0][i]);
+				rgts[i] = move.apply(before[1][i]);
+			}
+			parents[node] = parent;
+			// 重建时按移动前的左值顺序读取，被移动节点排在最后
+			int[][] expected = number(parents, before[0], node);
+			String message = "round " + round + " node " + node + " to "
+					+ parent;
+			assertEquals(message, Arrays.toString(expected[0]), Arrays
+					.toString(lfts));
+			assertEquals(message, Arrays.toString(expected[1]), Arrays
+					.toString(rgts));
+		}
+	}
+
+	/**
+	 * 新父节点：不在子树中的随机节点，或者为根
+	 */
+	private Long pickParent(Random random, int[][] numbering, int node) {
+		int n = numbering[0].length;
+		for (int tries = 0; tries < 10; tries++) {
+			int p = random.nextInt(n + 1);
+			if (p == n) {
+				return null;
+			}
+			if (numbering[0][p] < numbering[0][node]
+					|| numbering[0][p] > numbering[1][node]) {
+				return Long.valueOf(p);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * 按lfts的顺序读取节点并编号，结果为按下标排列的左值和右值
+	 */
+	private int[][] number(Long[] parents, final int[] lfts,
+			int... lastIds) {
+		int n = parents.length;
+		Integer[] order = new Integer[n];
+		for (int i = 0; i < n; i++) {
+			order[i] = i;
+		}
+		if (lfts != null) {
+			Arrays.sort(order, new Comparator<Integer>() {
+				public int compare(Integer o1, Integer o2) {
+					return lfts[o1] - lfts[o2];
+				}
+			});
+		}
+		TreeRebuilder.Nodes nodes = new TreeRebuilder.Nodes(false);
+		for (Integer i : order) {
+			nodes.add(i, parents[i], null, null, null);
+		}
+		Long[] last = new Long[lastIds.length];
+		for (int i = 0; i < last.length; i++) {
+			last[i] = Long.valueOf(lastIds[i]);
+		}
+		TreeRebuilder.Numbering numbering = TreeRebuilder.number(nodes, 1,
+				lastIds.length == 0 ? Collections.<Long> emptyList() : Arrays
+						.asList(last), "test");
+		int[] resultLfts = new int[n];
+		int[] resultRgts = new int[n];
+		for (int k = 0; k < n; k++) {
+			resultLfts[order[k]] = numbering.lfts[k];
+			resultRgts[order[k]] = numbering.rgts[k];
+		}
+		return new int[][] { resultLfts, resultRgts };
+	}
+
+	private static void assertMoved(NestedSetTreeStrategy.Move move,
+			int[] values, int[] expected) {
+		int[] moved = new int[values.length];
+		for (int i = 0; i < values.length; i++) {
+			moved[i] = move.apply(values[i]);
+		}
+		TreeRebuilderTest.assertValues(expected, moved);
+	}
+}
@@ -0,0 +1,132 @@
+package net.tatans.project.module.common.hibernate3;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+import junit.framework.TestCase;
+
+/**
+ * Project Name:demo-framework
+ * 
+ * Package:net.tatans.project.module.common.hibernate3
+ * 
+ * FileName:TreeRebuilderTest.java
+ * 
+ *         Purpose: 验证由父节点计算左右值和路径的深度优先遍历，不访问数据库
+ * 
+ *         Create Time: 2026年10月18日 上午9:40:17
+ * 
+ *         Version: 1.0
+ */
+public class TreeRebuilderTest extends TestCase {
+	private static final Collection<Long> NO_LAST = Collections.emptyList();
+
+	/**
+	 * <pre>
+	 * 1
+	 *   2
+	 *     4
+	 *   3
+	 * 5
+	 * </pre>
+	 */
+	private TreeRebuilder.Nodes nodes(boolean withPath) {
+		TreeRebuilder.Nodes nodes = new TreeRebuilder.Nodes(withPath);
+		nodes.add(1L, null, 1, 8, null);
+		nodes.add(2L, 1L, 2, 5, null);
+		nodes.add(4L, 2L, 3, 4, null);
+		nodes.add(3L, 1L, 6, 7, null);
+		nodes.add(5L, null, 9, 10, null);
+		return nodes;
+	}
+
+	public void testNumber() {
+		TreeRebuilder.Numbering numbering = TreeRebuilder.number(
+				nodes(false), 1, NO_LAST, "test");
+		assertValues(new int[] { 1, 2, 3, 6, 9 }, numbering.lfts);
+		assertValues(new int[] { 8, 5, 4, 7, 10 }, numbering.rgts);
+		assertNull(numbering.paths);
+	}
+
+	public void testSparseGap() {
+		TreeRebuilder.Numbering numbering = TreeRebuilder.number(
+				nodes(false), 100, NO_LAST, "test");
+		assertValues(new int[] { 100, 200, 300, 600, 900 }, numbering.lfts);
+		assertValues(new int[] { 800, 500, 400, 700, 1000 }, numbering.rgts);
+	}
+
+	public void testLastIds() {
+		// 2排在兄弟节点3之后，1排在根节点5之后
+		TreeRebuilder.Numbering numbering = TreeRebuilder.number(
+				nodes(false), 1, Arrays.asList(2L, 1L), "test");
+		assertValues(new int[] { 3, 6, 7, 4, 1 }, numbering.lfts);
+		assertValues(new int[] { 10, 9, 8, 5, 2 }, numbering.rgts);
+	}
+
+	public void testLastIdsNotInTree() {
+		TreeRebuilder.Numbering numbering = TreeRebuilder.number(
+				nodes(false), 1, Arrays.asList(99L), "test");
+		assertValues(new int[] { 1, 2, 3, 6, 9 }, numbering.lfts);
+	}
+
+	public void testPaths() {
+		TreeRebuilder.Numbering numbering = TreeRebuilder.number(nodes(true),
+				1, NO_LAST, "test");
+		assertEquals(Arrays.asList("/", "/1/", "/1/2/", "/1/", "/"), Arrays
+				.asList(numbering.paths));
+	}
+
+	public void testMissingParentAsRoot() {
+		TreeRebuilder.Nodes nodes = new TreeRebuilder.Nodes(false);
+		nodes.add(1L, null, null, null, null);
+		nodes.add(2L, 99L, null, null, null);
+		TreeRebuilder.Numbering numbering = TreeRebuilder.number(nodes, 1,
+				NO_LAST, "test");
+		assertValues(new int[] { 1, 3 }, numbering.lfts);
+		assertValues(new int[] { 2, 4 }, numbering.rgts);
+	}
+
+	public void testParentCycle() {
+		TreeRebuilder.Nodes nodes = new TreeRebuilder.Nodes(false);
+		nodes.add(1L, null, 1, 2, null);
+		nodes.add(2L, 3L, 3, 4, null);
+		nodes.add(3L, 2L, 5, 6, null);
+		try {
+			TreeRebuilder.number(nodes, 1, NO_LAST, "test");
+			fail("parent cycle");
+		} catch (IllegalStateException e) {
+			assertTrue(e.getMessage().startsWith("parent cycle"));
+		}
+	}
+
+	public void testGapOverflow() {
+		try {
+			TreeRebuilder.number(nodes(false), Integer.MAX_VALUE / 8,
+					NO_LAST, "test");
+			fail("gap overflow");
+		} catch (IllegalStateException e) {
+			assertTrue(e.getMessage().startsWith("too many nodes"));
+		}
+	}
+
+	public void testGrow() {
+		// 超过初始容量，按链表形式的深树验证非递归遍历
+		int n = 5000;
+		TreeRebuilder.Nodes nodes = new TreeRebuilder.Nodes(false);
+		for (int i = 0; i < n; i++) {
+			nodes.add(i, i == 0 ? null : Integer.valueOf(i - 1), null, null,
+					null);
+		}
+		TreeRebuilder.Numbering numbering = TreeRebuilder.number(nodes, 1,
+				NO_LAST, "test");
+		for (int i = 0; i < n; i++) {
+			assertEquals(i + 1, numbering.lfts[i]);
+			assertEquals(2 * n - i, numbering.rgts[i]);
+		}
+	}
+
+	static void assertValues(int[] expected, int[] actual) {
+		assertEquals(Arrays.toString(expected), Arrays.toString(actual));
+	}
+}
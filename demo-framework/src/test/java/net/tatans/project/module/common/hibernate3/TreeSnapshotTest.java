@@ -0,0 +1,106 @@
+package net.tatans.project.module.common.hibernate3;
+
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+/**
+ * Project Name:demo-framework
+ * 
+ * Package:net.tatans.project.module.common.hibernate3
+ * 
+ * FileName:TreeSnapshotTest.java
+ * 
+ *         Purpose: 用手工构造的左右值验证快照查询
+ * 
+ *         Create Time: 2026年10月18日 上午9:12:05
+ * 
+ *         Version: 1.0
+ */
+public class TreeSnapshotTest extends TestCase {
+	/**
+	 * <pre>
+	 * 10 [1, 10]
+	 *   7 [2, 5]
+	 *     30 [3, 4]
+	 *   4 [6, 9]
+	 *     25 [7, 8]
+	 * 2 [11, 12]
+	 * </pre>
+	 */
+	private TreeSnapshot snapshot;
+
+	@Override
+	protected void setUp() {
+		snapshot = TreeSnapshot.build(new int[] { 10, 7, 30, 4, 25, 2 },
+				new int[] { 1, 2, 3, 6, 7, 11 }, new int[] { 10, 5, 4, 9, 8,
+						12 });
+	}
+
+	public void testContains() {
+		assertEquals(6, snapshot.size());
+		assertTrue(snapshot.contains(25));
+		assertFalse(snapshot.contains(3));
+	}
+
+	public void testParentAndDepth() {
+		assertEquals(TreeSnapshot.NONE, snapshot.getParentId(10));
+		assertEquals(TreeSnapshot.NONE, snapshot.getParentId(2));
+		assertEquals(10, snapshot.getParentId(7));
+		assertEquals(7, snapshot.getParentId(30));
+		assertEquals(4, snapshot.getParentId(25));
+		assertEquals(0, snapshot.getDepth(2));
+		assertEquals(1, snapshot.getDepth(4));
+		assertEquals(2, snapshot.getDepth(30));
+		assertEquals(TreeSnapshot.NONE, snapshot.getDepth(3));
+		assertEquals(TreeSnapshot.NONE, snapshot.getParentId(3));
+	}
+
+	public void testAncestors() {
+		assertIds(new int[] { 10, 4 }, snapshot.getAncestorIds(25));
+		assertIds(new int[0], snapshot.getAncestorIds(10));
+		assertIds(new int[0], snapshot.getAncestorIds(3));
+	}
+
+	public void testChildrenAndRoots() {
+		assertIds(new int[] { 7, 4 }, snapshot.getChildIds(10));
+		assertIds(new int[] { 30 }, snapshot.getChildIds(7));
+		assertIds(new int[0], snapshot.getChildIds(2));
+		assertIds(new int[] { 10, 2 }, snapshot.getRootIds());
+	}
+
+	public void testDescendants() {
+		assertIds(new int[] { 7, 30, 4, 25 }, snapshot.getDescendantIds(10));
+		assertIds(new int[] { 25 }, snapshot.getDescendantIds(4));
+		assertIds(new int[0], snapshot.getDescendantIds(2));
+		assertEquals(4, snapshot.getDescendantCount(10));
+		assertEquals(0, snapshot.getDescendantCount(30));
+		assertEquals(0, snapshot.getDescendantCount(3));
+		assertTrue(snapshot.isDescendant(10, 25));
+		assertTrue(snapshot.isDescendant(7, 30));
+		assertFalse(snapshot.isDescendant(7, 25));
+		assertFalse(snapshot.isDescendant(10, 10));
+		assertFalse(snapshot.isDescendant(10, 2));
+	}
+
+	public void testEmpty() {
+		TreeSnapshot empty = TreeSnapshot.build(new int[0], new int[0],
+				new int[0]);
+		assertEquals(0, empty.size());
+		assertIds(new int[0], empty.getRootIds());
+	}
+
+	public void testRejectUnsortedLft() {
+		try {
+			TreeSnapshot.build(new int[] { 1, 2 }, new int[] { 3, 1 },
+					new int[] { 4, 2 });
+			fail("lft not in ascending order");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	private static void assertIds(int[] expected, int[] actual) {
+		assertEquals(Arrays.toString(expected), Arrays.toString(actual));
+	}
+}